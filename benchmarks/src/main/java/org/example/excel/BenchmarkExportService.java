@@ -0,0 +1,44 @@
+package org.example.excel;
+
+import com.example.excelexport.service.ExportService;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal {@link ExportService} so {@code ExcelGenerator} can be driven outside Spring.
+ */
+public class BenchmarkExportService extends ExportService<Object> {
+    
+    private final Map<String, String> headers;
+    
+    public BenchmarkExportService(Map<String, String> headers) {
+        this.headers = headers;
+    }
+    
+    @Override
+    public String getSupportedExportType() {
+        return "BENCHMARK";
+    }
+    
+    @Override
+    public List<Object> queryData(Map<String, Object> paramFilter) {
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    public Map<String, String> generateHeaders(List<Object> data) {
+        return headers;
+    }
+    
+    @Override
+    protected byte[] generateExcel(Iterator<Object> data, Map<String, String> headers) {
+        throw new UnsupportedOperationException();
+    }
+    
+    @Override
+    protected byte[] createEmptyExcel() {
+        throw new UnsupportedOperationException();
+    }
+}
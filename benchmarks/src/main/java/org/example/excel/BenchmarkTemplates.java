@@ -0,0 +1,91 @@
+package org.example.excel;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds the templates the template-driven engines need for a given column set.
+ * <p>
+ * The jxls templates under {@code excel-export-service/src/main/resources/templates} only carry
+ * first-row expressions and no {@code jx:area}/{@code jx:each} markup, so they cannot expand to
+ * N rows; the benchmark generates an equivalent template with the markup instead.
+ */
+public final class BenchmarkTemplates {
+    
+    private BenchmarkTemplates() {
+    }
+    
+    /**
+     * Header row of field names followed by one {@code ${row.field}} row repeated over {@code rows}.
+     */
+    public static Path createJxlsTemplate(Path directory, String fileName, String[] fieldNames) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Export Data");
+            Row headerRow = sheet.createRow(0);
+            Row dataRow = sheet.createRow(1);
+            for (int i = 0; i < fieldNames.length; i++) {
+                headerRow.createCell(i).setCellValue(fieldNames[i]);
+                dataRow.createCell(i).setCellValue("${row." + fieldNames[i] + "}");
+            }
+            
+            String lastCell = CellReference.convertNumToColString(fieldNames.length - 1) + "2";
+            addComment(workbook, headerRow.getCell(0), "jx:area(lastCell=\"" + lastCell + "\")");
+            addComment(workbook, dataRow.getCell(0),
+                    "jx:each(items=\"rows\" var=\"row\" lastCell=\"" + lastCell + "\")");
+            
+            return write(workbook, directory.resolve(fileName));
+        }
+    }
+    
+    /**
+     * Header-only template; {@code TemplateConfigExcelExporter} matches the headers to field names.
+     */
+    public static Path createHeaderTemplate(Path directory, String fileName, String[] fieldNames) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Export Data");
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < fieldNames.length; i++) {
+                headerRow.createCell(i).setCellValue(fieldNames[i]);
+            }
+            return write(workbook, directory.resolve(fileName));
+        }
+    }
+    
+    /**
+     * {@code ExcelWriterImpl} resolves templates through the context class loader, so the generated
+     * templates are exposed by installing this loader on the benchmark thread.
+     */
+    public static ClassLoader templateClassLoader(Path directory, ClassLoader parent) throws IOException {
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, parent);
+    }
+    
+    private static void addComment(Workbook workbook, Cell cell, String text) {
+        CreationHelper creationHelper = workbook.getCreationHelper();
+        Drawing<?> drawing = cell.getSheet().createDrawingPatriarch();
+        
+        ClientAnchor anchor = creationHelper.createClientAnchor();
+        anchor.setCol1(cell.getColumnIndex());
+        anchor.setCol2(cell.getColumnIndex() + 3);
+        anchor.setRow1(cell.getRowIndex());
+        anchor.setRow2(cell.getRowIndex() + 3);
+        
+        Comment comment = drawing.createCellComment(anchor);
+        comment.setString(creationHelper.createRichTextString(text));
+        cell.setCellComment(comment);
+    }
+    
+    private static Path write(Workbook workbook, Path path) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            workbook.write(outputStream);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,227 @@
+package org.example.excel;
+
+import com.example.excelexport.model.Employee;
+import com.example.excelexport.service.ExcelGenerator;
+import com.example.excelexport.service.ExportMetrics;
+import com.example.excelexport.service.MockDataService;
+import com.example.excelexport.service.TemplateCache;
+import com.example.excelexport.service.impl.ExcelWriterImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.model.WideEmployee;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Writes the same {@link MockDataService} rows through every export engine. Besides files/s the
+ * results carry {@code rowsWritten} (rows/s) and {@code outputBytes} (file size); add
+ * {@code -prof gc} for allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ExportEngineBenchmark {
+    
+    private static final String[] EMPLOYEE_FIELDS = {"firstName", "lastName", "email", "department", "salary", "age"};
+    private static final int WIDE_REPEAT = 7;
+    private static final int ROW_WINDOW_SIZE = 100;
+    
+    public enum Schema {
+        NARROW, WIDE
+    }
+    
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+    
+    @Param({"NARROW", "WIDE"})
+    private Schema schema;
+    
+    private List<Object> data;
+    private String[] fieldNames;
+    private Map<String, String> headers;
+    
+    private ExcelGenerator excelGenerator;
+    private BenchmarkExportService exportService;
+    private ExcelWriterImpl excelWriter;
+    
+    private Path workDirectory;
+    private Path outputFile;
+    private Path headerTemplate;
+    private String jxlsTemplateName;
+    private ClassLoader templateClassLoader;
+    private ClassLoader originalClassLoader;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rowsWritten;
+    }
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class OutputSize {
+        public long outputBytes;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Employee> employees = new MockDataService().generateEmployees(rows);
+        data = new ArrayList<>(rows);
+        if (schema == Schema.NARROW) {
+            data.addAll(employees);
+            fieldNames = EMPLOYEE_FIELDS;
+        } else {
+            for (Employee employee : employees) {
+                data.add(new WideEmployee(employee));
+            }
+            fieldNames = wideFieldNames();
+        }
+        
+        headers = new LinkedHashMap<>();
+        for (String fieldName : fieldNames) {
+            headers.put(fieldName, fieldName.toUpperCase());
+        }
+        
+        excelGenerator = new ExcelGenerator();
+        Field rowWindowSize = ExcelGenerator.class.getDeclaredField("rowWindowSize");
+        rowWindowSize.setAccessible(true);
+        rowWindowSize.setInt(excelGenerator, ROW_WINDOW_SIZE);
+        Field exportMetrics = ExcelGenerator.class.getDeclaredField("exportMetrics");
+        exportMetrics.setAccessible(true);
+        exportMetrics.set(excelGenerator, new ExportMetrics(new SimpleMeterRegistry()));
+        exportService = new BenchmarkExportService(headers);
+        excelWriter = new ExcelWriterImpl();
+        Field templateCache = ExcelWriterImpl.class.getDeclaredField("templateCache");
+        templateCache.setAccessible(true);
+        templateCache.set(excelWriter, new TemplateCache());
+        Field writerRowWindowSize = ExcelWriterImpl.class.getDeclaredField("rowWindowSize");
+        writerRowWindowSize.setAccessible(true);
+        writerRowWindowSize.setInt(excelWriter, ROW_WINDOW_SIZE);
+        
+        workDirectory = Files.createTempDirectory("export-benchmark");
+        outputFile = workDirectory.resolve("output.xlsx");
+        headerTemplate = BenchmarkTemplates.createHeaderTemplate(workDirectory, "header_template.xlsx", fieldNames);
+        jxlsTemplateName = BenchmarkTemplates.createJxlsTemplate(workDirectory, "jxls_template.xlsx", fieldNames)
+                .getFileName().toString();
+        templateClassLoader = BenchmarkTemplates.templateClassLoader(workDirectory, getClass().getClassLoader());
+    }
+    
+    @Setup(Level.Iteration)
+    public void installTemplateClassLoader() {
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(templateClassLoader);
+    }
+    
+    @TearDown(Level.Iteration)
+    public void restoreClassLoader() {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(workDirectory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    @Benchmark
+    public void excelGenerator(RowCounter rowCounter, OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        excelGenerator.writeExcel(data.iterator(), headers, exportService, false, outputStream);
+        record(rowCounter, outputSize, outputStream.count);
+    }
+    
+    @Benchmark
+    public void excelGeneratorStreaming(RowCounter rowCounter, OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        excelGenerator.writeExcel(data.iterator(), headers, exportService, true, outputStream);
+        record(rowCounter, outputSize, outputStream.count);
+    }
+    
+    @Benchmark
+    public void jxls(RowCounter rowCounter, OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("rows", data);
+        excelWriter.writeFromTemplate(outputStream, jxlsTemplateName, context);
+        record(rowCounter, outputSize, outputStream.count);
+    }
+    
+    @Benchmark
+    public void jxlsStreaming(RowCounter rowCounter, OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("rows", data);
+        excelWriter.writeFromTemplateStreaming(outputStream, jxlsTemplateName, context);
+        record(rowCounter, outputSize, outputStream.count);
+    }
+    
+    @Benchmark
+    public void headerBased(RowCounter rowCounter, OutputSize outputSize) throws IOException {
+        HeaderBasedExcelExporter<Object> exporter = new HeaderBasedExcelExporter<>(
+                headers.values().toArray(new String[0]), fieldNames);
+        exporter.exportData(data, outputFile.toString());
+        record(rowCounter, outputSize, Files.size(outputFile));
+    }
+    
+    @Benchmark
+    public void templateBased(RowCounter rowCounter, OutputSize outputSize) throws IOException {
+        TemplateBasedExcelExporter<Object> exporter = new TemplateBasedExcelExporter<>();
+        exporter.exportData(data, outputFile.toString());
+        record(rowCounter, outputSize, Files.size(outputFile));
+    }
+    
+    @Benchmark
+    public void templateConfig(RowCounter rowCounter, OutputSize outputSize) throws IOException {
+        try (TemplateConfigExcelExporter exporter = new TemplateConfigExcelExporter(headerTemplate.toString())) {
+            exporter.exportData(data, outputFile.toString());
+        }
+        record(rowCounter, outputSize, Files.size(outputFile));
+    }
+    
+    private void record(RowCounter rowCounter, OutputSize outputSize, long bytes) {
+        rowCounter.rowsWritten += rows;
+        outputSize.outputBytes = bytes;
+    }
+    
+    private static String[] wideFieldNames() {
+        String[] names = new String[EMPLOYEE_FIELDS.length * WIDE_REPEAT];
+        for (int group = 0; group < WIDE_REPEAT; group++) {
+            for (int i = 0; i < EMPLOYEE_FIELDS.length; i++) {
+                names[group * EMPLOYEE_FIELDS.length + i] = EMPLOYEE_FIELDS[i] + (group + 1);
+            }
+        }
+        return names;
+    }
+    
+    private static class CountingOutputStream extends OutputStream {
+        
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
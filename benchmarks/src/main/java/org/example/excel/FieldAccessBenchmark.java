@@ -0,0 +1,96 @@
+package org.example.excel;
+
+import org.example.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldAccessBenchmark {
+    
+    private static final String[] FIELD_NAMES = {"firstName", "lastName", "email", "department", "salary", "age"};
+    
+    @Param({"1000"})
+    private int rows;
+    
+    private List<Employee> employees;
+    private Field[] fields;
+    private FieldAccessor[] methodHandles;
+    private FieldAccessor[] lambdas;
+    
+    @Setup
+    public void setUp() throws Throwable {
+        employees = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            employees.add(new Employee("First" + i, "Last" + i, "user" + i + "@company.com", "IT", 50000.0 + i, 20 + i % 40));
+        }
+        
+        fields = new Field[FIELD_NAMES.length];
+        methodHandles = new FieldAccessor[FIELD_NAMES.length];
+        lambdas = new FieldAccessor[FIELD_NAMES.length];
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            fields[i] = Employee.class.getDeclaredField(FIELD_NAMES[i]);
+            fields[i].setAccessible(true);
+            methodHandles[i] = FieldAccessors.methodHandleAccessor(fields[i]);
+            lambdas[i] = FieldAccessors.lambdaAccessor(FieldAccessors.findGetter(Employee.class, FIELD_NAMES[i]));
+        }
+    }
+    
+    @Benchmark
+    public void reflectionLookupPerCell(Blackhole blackhole) throws Exception {
+        for (Employee employee : employees) {
+            for (String fieldName : FIELD_NAMES) {
+                Field field = employee.getClass().getDeclaredField(fieldName);
+                field.setAccessible(true);
+                blackhole.consume(field.get(employee));
+            }
+        }
+    }
+    
+    @Benchmark
+    public void cachedReflection(Blackhole blackhole) throws Exception {
+        for (Employee employee : employees) {
+            for (Field field : fields) {
+                blackhole.consume(field.get(employee));
+            }
+        }
+    }
+    
+    @Benchmark
+    public void methodHandles(Blackhole blackhole) {
+        for (Employee employee : employees) {
+            for (FieldAccessor accessor : methodHandles) {
+                blackhole.consume(accessor.get(employee));
+            }
+        }
+    }
+    
+    @Benchmark
+    public void generatedLambdas(Blackhole blackhole) {
+        for (Employee employee : employees) {
+            for (FieldAccessor accessor : lambdas) {
+                blackhole.consume(accessor.get(employee));
+            }
+        }
+    }
+    
+    @Benchmark
+    public void columnAccessors(Blackhole blackhole) {
+        ColumnAccessors columns = new ColumnAccessors(Arrays.asList(FIELD_NAMES));
+        for (Employee employee : employees) {
+            for (int i = 0; i < columns.size(); i++) {
+                blackhole.consume(columns.get(employee, i));
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.excel;
+
+import com.example.excelexport.model.Employee;
+import com.example.excelexport.model.ExportRequest;
+import com.example.excelexport.model.JsonFormat;
+import com.example.excelexport.service.ExportMetrics;
+import com.example.excelexport.service.ExportService;
+import com.example.excelexport.service.JsonExportService;
+import com.example.excelexport.service.MockDataService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the string JSON path ({@code writeValueAsString} then {@code getBytes}, as
+ * {@code MinioService.uploadJsonFile} receives it) with the streaming array and NDJSON writers over
+ * the same {@link MockDataService} rows. Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the
+ * bytes allocated per export, which for the string path grows with the document.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class JsonExportBenchmark {
+    
+    private static final String EXPORT_TYPE = "BENCHMARK";
+    
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+    
+    private BenchmarkJsonExportService exportService;
+    private ExportRequest request;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class OutputSize {
+        public long outputBytes;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        exportService = new BenchmarkJsonExportService(new MockDataService().generateEmployees(rows));
+        Field exportMetrics = ExportService.class.getDeclaredField("exportMetrics");
+        exportMetrics.setAccessible(true);
+        exportMetrics.set(exportService, new ExportMetrics(new SimpleMeterRegistry()));
+        request = new ExportRequest(EXPORT_TYPE, Map.of(), "benchmark");
+    }
+    
+    @Benchmark
+    public void stringArray(OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        byte[] json = exportService.exportToJson(request).getBytes(StandardCharsets.UTF_8);
+        outputStream.write(json, 0, json.length);
+        outputSize.outputBytes = outputStream.count;
+    }
+    
+    @Benchmark
+    public void streamingArray(OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        exportService.exportToJson(request, outputStream, JsonFormat.ARRAY);
+        outputSize.outputBytes = outputStream.count;
+    }
+    
+    @Benchmark
+    public void streamingNdjson(OutputSize outputSize) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        exportService.exportToJson(request, outputStream, JsonFormat.NDJSON);
+        outputSize.outputBytes = outputStream.count;
+    }
+    
+    private static class BenchmarkJsonExportService extends JsonExportService<Employee> {
+        
+        private final List<Employee> data;
+        
+        BenchmarkJsonExportService(List<Employee> data) {
+            this.data = data;
+        }
+        
+        @Override
+        public String getSupportedExportType() {
+            return EXPORT_TYPE;
+        }
+        
+        @Override
+        public List<Employee> queryData(Map<String, Object> paramFilter) {
+            return data;
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<Employee> data) {
+            return Map.of();
+        }
+    }
+    
+    private static class CountingOutputStream extends OutputStream {
+        
+        private long count;
+        
+        @Override
+        public void write(int b) {
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.example.model;
+
+import com.example.excelexport.model.Employee;
+
+import java.math.BigDecimal;
+
+/**
+ * Wide benchmark row: the six {@link Employee} columns repeated seven times (42 columns).
+ */
+public class WideEmployee {
+    
+    private String firstName1;
+    private String lastName1;
+    private String email1;
+    private String department1;
+    private BigDecimal salary1;
+    private Integer age1;
+    private String firstName2;
+    private String lastName2;
+    private String email2;
+    private String department2;
+    private BigDecimal salary2;
+    private Integer age2;
+    private String firstName3;
+    private String lastName3;
+    private String email3;
+    private String department3;
+    private BigDecimal salary3;
+    private Integer age3;
+    private String firstName4;
+    private String lastName4;
+    private String email4;
+    private String department4;
+    private BigDecimal salary4;
+    private Integer age4;
+    private String firstName5;
+    private String lastName5;
+    private String email5;
+    private String department5;
+    private BigDecimal salary5;
+    private Integer age5;
+    private String firstName6;
+    private String lastName6;
+    private String email6;
+    private String department6;
+    private BigDecimal salary6;
+    private Integer age6;
+    private String firstName7;
+    private String lastName7;
+    private String email7;
+    private String department7;
+    private BigDecimal salary7;
+    private Integer age7;
+    
+    public WideEmployee(Employee employee) {
+        this.firstName1 = employee.getFirstName();
+        this.lastName1 = employee.getLastName();
+        this.email1 = employee.getEmail();
+        this.department1 = employee.getDepartment();
+        this.salary1 = employee.getSalary();
+        this.age1 = employee.getAge();
+        this.firstName2 = employee.getFirstName();
+        this.lastName2 = employee.getLastName();
+        this.email2 = employee.getEmail();
+        this.department2 = employee.getDepartment();
+        this.salary2 = employee.getSalary();
+        this.age2 = employee.getAge();
+        this.firstName3 = employee.getFirstName();
+        this.lastName3 = employee.getLastName();
+        this.email3 = employee.getEmail();
+        this.department3 = employee.getDepartment();
+        this.salary3 = employee.getSalary();
+        this.age3 = employee.getAge();
+        this.firstName4 = employee.getFirstName();
+        this.lastName4 = employee.getLastName();
+        this.email4 = employee.getEmail();
+        this.department4 = employee.getDepartment();
+        this.salary4 = employee.getSalary();
+        this.age4 = employee.getAge();
+        this.firstName5 = employee.getFirstName();
+        this.lastName5 = employee.getLastName();
+        this.email5 = employee.getEmail();
+        this.department5 = employee.getDepartment();
+        this.salary5 = employee.getSalary();
+        this.age5 = employee.getAge();
+        this.firstName6 = employee.getFirstName();
+        this.lastName6 = employee.getLastName();
+        this.email6 = employee.getEmail();
+        this.department6 = employee.getDepartment();
+        this.salary6 = employee.getSalary();
+        this.age6 = employee.getAge();
+        this.firstName7 = employee.getFirstName();
+        this.lastName7 = employee.getLastName();
+        this.email7 = employee.getEmail();
+        this.department7 = employee.getDepartment();
+        this.salary7 = employee.getSalary();
+        this.age7 = employee.getAge();
+    }
+    
+    public String getFirstName1() {
+        return firstName1;
+    }
+    
+    public String getLastName1() {
+        return lastName1;
+    }
+    
+    public String getEmail1() {
+        return email1;
+    }
+    
+    public String getDepartment1() {
+        return department1;
+    }
+    
+    public BigDecimal getSalary1() {
+        return salary1;
+    }
+    
+    public Integer getAge1() {
+        return age1;
+    }
+    
+    public String getFirstName2() {
+        return firstName2;
+    }
+    
+    public String getLastName2() {
+        return lastName2;
+    }
+    
+    public String getEmail2() {
+        return email2;
+    }
+    
+    public String getDepartment2() {
+        return department2;
+    }
+    
+    public BigDecimal getSalary2() {
+        return salary2;
+    }
+    
+    public Integer getAge2() {
+        return age2;
+    }
+    
+    public String getFirstName3() {
+        return firstName3;
+    }
+    
+    public String getLastName3() {
+        return lastName3;
+    }
+    
+    public String getEmail3() {
+        return email3;
+    }
+    
+    public String getDepartment3() {
+        return department3;
+    }
+    
+    public BigDecimal getSalary3() {
+        return salary3;
+    }
+    
+    public Integer getAge3() {
+        return age3;
+    }
+    
+    public String getFirstName4() {
+        return firstName4;
+    }
+    
+    public String getLastName4() {
+        return lastName4;
+    }
+    
+    public String getEmail4() {
+        return email4;
+    }
+    
+    public String getDepartment4() {
+        return department4;
+    }
+    
+    public BigDecimal getSalary4() {
+        return salary4;
+    }
+    
+    public Integer getAge4() {
+        return age4;
+    }
+    
+    public String getFirstName5() {
+        return firstName5;
+    }
+    
+    public String getLastName5() {
+        return lastName5;
+    }
+    
+    public String getEmail5() {
+        return email5;
+    }
+    
+    public String getDepartment5() {
+        return department5;
+    }
+    
+    public BigDecimal getSalary5() {
+        return salary5;
+    }
+    
+    public Integer getAge5() {
+        return age5;
+    }
+    
+    public String getFirstName6() {
+        return firstName6;
+    }
+    
+    public String getLastName6() {
+        return lastName6;
+    }
+    
+    public String getEmail6() {
+        return email6;
+    }
+    
+    public String getDepartment6() {
+        return department6;
+    }
+    
+    public BigDecimal getSalary6() {
+        return salary6;
+    }
+    
+    public Integer getAge6() {
+        return age6;
+    }
+    
+    public String getFirstName7() {
+        return firstName7;
+    }
+    
+    public String getLastName7() {
+        return lastName7;
+    }
+    
+    public String getEmail7() {
+        return email7;
+    }
+    
+    public String getDepartment7() {
+        return department7;
+    }
+    
+    public BigDecimal getSalary7() {
+        return salary7;
+    }
+    
+    public Integer getAge7() {
+        return age7;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.excel;
+
+import java.util.Collection;
+
+/**
+ * Field accessors for one export, indexed by column position. Accessors are re-resolved
+ * only when the row type changes, so a homogeneous export resolves them exactly once.
+ * Values are read from the fields unless {@code preferGetters} is set, see {@link FieldAccessors}.
+ */
+public class ColumnAccessors {
+    
+    private final String[] fieldNames;
+    private final boolean preferGetters;
+    private Class<?> rowType;
+    private FieldAccessor[] accessors;
+    
+    public ColumnAccessors(Collection<String> fieldNames) {
+        this(fieldNames, false);
+    }
+    
+    public ColumnAccessors(Collection<String> fieldNames, boolean preferGetters) {
+        this.fieldNames = fieldNames.toArray(new String[0]);
+        this.preferGetters = preferGetters;
+    }
+    
+    public int size() {
+        return fieldNames.length;
+    }
+    
+    public String getFieldName(int columnIndex) {
+        return fieldNames[columnIndex];
+    }
+    
+    public Object get(Object row, int columnIndex) {
+        Class<?> type = row.getClass();
+        if (type != rowType) {
+            accessors = FieldAccessors.forFields(type, fieldNames, preferGetters);
+            rowType = type;
+        }
+        FieldAccessor accessor = accessors[columnIndex];
+        return accessor != null ? accessor.get(row) : null;
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.excel;
+
+@FunctionalInterface
+public interface FieldAccessor {
+    
+    Object get(Object target);
+}
@@ -4,6 +4,7 @@ import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 public class HeaderBasedExcelExporter<T> extends BaseExcelExporter<T> {
@@ -29,12 +30,13 @@ public class HeaderBasedExcelExporter<T> extends BaseExcelExporter<T> {
         createSheet(sheetName);
         createHeaderRow(headers);
         
+        ColumnAccessors columns = new ColumnAccessors(Arrays.asList(fieldNames));
         int rowIndex = 1;
         for (T item : data) {
             Row dataRow = sheet.createRow(rowIndex++);
             for (int i = 0; i < fieldNames.length; i++) {
                 Cell cell = dataRow.createCell(i);
-                Object value = getFieldValue(item, fieldNames[i]);
+                Object value = getFieldValue(item, columns, i);
                 setCellValue(cell, value);
             }
         }
@@ -5,7 +5,6 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.util.List;
 
 public abstract class ObjectBaseExcelExporter {
@@ -14,6 +13,7 @@ public abstract class ObjectBaseExcelExporter {
     protected Sheet sheet;
     protected CellStyle headerStyle;
     protected CellStyle dataStyle;
+    private final boolean overridesNamedFieldValue = overridesNamedFieldValue();
     
     public ObjectBaseExcelExporter() {
         this.workbook = new XSSFWorkbook();
@@ -72,14 +72,40 @@ public abstract class ObjectBaseExcelExporter {
     
     protected Object getFieldValue(Object object, String fieldName) {
         try {
-            Field field = object.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return field.get(object);
+            FieldAccessor accessor = FieldAccessors.forField(object.getClass(), fieldName);
+            return accessor != null ? accessor.get(object) : "";
         } catch (Exception e) {
             return "";
         }
     }
     
+    /**
+     * Reads one cell by column position. A subclass that overrides {@link #getFieldValue(Object, String)}
+     * is still called for every cell; otherwise the field is read through {@code columns}.
+     */
+    protected Object getFieldValue(Object object, ColumnAccessors columns, int columnIndex) {
+        if (overridesNamedFieldValue) {
+            return getFieldValue(object, columns.getFieldName(columnIndex));
+        }
+        try {
+            return columns.get(object, columnIndex);
+        } catch (Exception e) {
+            return "";
+        }
+    }
+    
+    private boolean overridesNamedFieldValue() {
+        for (Class<?> type = getClass(); type != ObjectBaseExcelExporter.class; type = type.getSuperclass()) {
+            try {
+                type.getDeclaredMethod("getFieldValue", Object.class, String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // keep walking up
+            }
+        }
+        return false;
+    }
+    
     public void saveToFile(String filePath) throws IOException {
         try (FileOutputStream outputStream = new FileOutputStream(filePath)) {
             workbook.write(outputStream);
@@ -28,12 +28,13 @@ public class TemplateBasedExcelExporter<T> extends BaseExcelExporter<T> {
         
         createHeaderRow(headers.toArray(new String[0]));
         
+        ColumnAccessors columns = new ColumnAccessors(fieldNames);
         int rowIndex = 1;
         for (T item : data) {
             Row dataRow = sheet.createRow(rowIndex++);
             for (int i = 0; i < fieldNames.size(); i++) {
                 Cell cell = dataRow.createCell(i);
-                Object value = getFieldValue(item, fieldNames.get(i));
+                Object value = getFieldValue(item, columns, i);
                 setCellValue(cell, value);
             }
         }
@@ -88,6 +88,9 @@ public class TemplateConfigExcelExporter implements AutoCloseable {
         
         clearExistingData();
         
+        ColumnAccessors columns = new ColumnAccessors(columnMapping.keySet());
+        int[] columnIndexes = columnMapping.values().stream().mapToInt(Integer::intValue).toArray();
+        
         int rowIndex = dataStartRow;
         for (Object item : data) {
             Row dataRow = sheet.getRow(rowIndex);
@@ -95,16 +98,15 @@ public class TemplateConfigExcelExporter implements AutoCloseable {
                 dataRow = sheet.createRow(rowIndex);
             }
             
-            for (Map.Entry<String, Integer> entry : columnMapping.entrySet()) {
-                String fieldName = entry.getKey();
-                int columnIndex = entry.getValue();
+            for (int i = 0; i < columnIndexes.length; i++) {
+                int columnIndex = columnIndexes[i];
                 
                 Cell cell = dataRow.getCell(columnIndex);
                 if (cell == null) {
                     cell = dataRow.createCell(columnIndex);
                 }
                 
-                Object value = getFieldValue(item, fieldName);
+                Object value = getFieldValue(item, columns, i);
                 setCellValue(cell, value);
             }
             rowIndex++;
@@ -130,11 +132,9 @@ public class TemplateConfigExcelExporter implements AutoCloseable {
         }
     }
     
-    private Object getFieldValue(Object object, String fieldName) {
+    private Object getFieldValue(Object object, ColumnAccessors columns, int columnIndex) {
         try {
-            Field field = object.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return field.get(object);
+            return columns.get(object, columnIndex);
         } catch (Exception e) {
             return "";
         }
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+# Fires REQUESTS sync export calls, CONCURRENCY at a time, and prints latency percentiles and the
+# status code mix. Run it before and after a change against the same build/config to compare.
+#
+#   ./scripts/measure-sync-latency.sh [url] [requests] [concurrency]
+set -euo pipefail
+
+URL="${1:-http://localhost:8080/excel-service/api/excel/export/employees?count=10}"
+REQUESTS="${2:-500}"
+CONCURRENCY="${3:-50}"
+
+RESULTS="$(mktemp)"
+trap 'rm -f "$RESULTS"' EXIT
+
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" "$URL" >> "$RESULTS"
+
+echo "Status codes:"
+cut -d' ' -f1 "$RESULTS" | sort | uniq -c
+
+cut -d' ' -f2 "$RESULTS" | sort -n | awk '
+    { latency[NR] = $1 }
+    END {
+        printf "requests=%d p50=%.3fs p95=%.3fs p99=%.3fs max=%.3fs\n", NR,
+            latency[int(NR * 0.50 + 0.5)], latency[int(NR * 0.95 + 0.5)],
+            latency[int(NR * 0.99 + 0.5)], latency[NR]
+    }'
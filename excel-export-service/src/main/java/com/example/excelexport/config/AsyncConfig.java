@@ -1,26 +1,73 @@
 package com.example.excelexport.config;
 
+import com.example.excelexport.service.PriorityExportScheduler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
-    @Bean(name = "exportTaskExecutor")
-    public Executor exportTaskExecutor() {
+    /**
+     * Runs exports sent to the background. Exports up to {@code interactive-max-rows} are served
+     * ahead of bulk ones, and clients share each class by requested row count. Shut down before JPA so
+     * exports finishing or dropped during shutdown can still update their task.
+     */
+    @Bean(name = "exportTaskExecutor", destroyMethod = "shutdown")
+    @DependsOn("entityManagerFactory")
+    public PriorityExportScheduler exportTaskExecutor(
+            @Value("${excel.task-scheduler.worker-threads:5}") int workerThreads,
+            @Value("${excel.task-scheduler.interactive-queue-capacity:50}") int interactiveQueueCapacity,
+            @Value("${excel.task-scheduler.bulk-queue-capacity:100}") int bulkQueueCapacity,
+            @Value("${excel.task-scheduler.interactive-max-rows:10000}") long interactiveMaxRows,
+            @Value("${excel.task-scheduler.quantum-rows:10000}") long quantumRows,
+            @Value("${excel.task-scheduler.interactive-weight:4}") int interactiveWeight,
+            @Value("${excel.task-scheduler.await-termination-seconds:60}") long awaitTerminationSeconds) {
+        return new PriorityExportScheduler(workerThreads, interactiveQueueCapacity, bulkQueueCapacity,
+                interactiveMaxRows, quantumRows, interactiveWeight, awaitTerminationSeconds, "ExportAsync-");
+    }
+
+    /**
+     * Runs the synchronous part of exports (jxls/POI rendering). Bounded so a burst of requests is
+     * rejected with 503 instead of queueing without limit or borrowing the common ForkJoinPool.
+     */
+    @Bean(name = "exportRenderExecutor")
+    public Executor exportRenderExecutor(
+            @Value("${excel.render-executor.core-pool-size:4}") int corePoolSize,
+            @Value("${excel.render-executor.max-pool-size:8}") int maxPoolSize,
+            @Value("${excel.render-executor.queue-capacity:50}") int queueCapacity) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("ExportAsync-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ExportRender-");
+        executor.setRejectedExecutionHandler(new CountingAbortPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
         return executor;
     }
+
+    public static class CountingAbortPolicy extends ThreadPoolExecutor.AbortPolicy {
+
+        private final AtomicLong rejectedCount = new AtomicLong();
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejectedCount.incrementAndGet();
+            super.rejectedExecution(runnable, executor);
+        }
+
+        public long getRejectedCount() {
+            return rejectedCount.get();
+        }
+    }
 }
@@ -4,18 +4,27 @@ import com.example.excelexport.entity.ExportTask;
 import com.example.excelexport.model.ExcelExportRequest;
 import com.example.excelexport.service.GenericExcelExportService;
 import com.example.excelexport.service.ExcelWriter;
+import com.example.excelexport.service.ExportProgressTracker;
+import com.example.excelexport.service.ExportThroughputTracker;
 import com.example.excelexport.service.MinIOService;
 import com.example.excelexport.service.MockDataService;
+import com.example.excelexport.service.RangeNotSatisfiableException;
 import com.example.excelexport.service.ThreadMonitoringService;
 import com.example.excelexport.model.Employee;
 import com.example.excelexport.model.Product;
+import io.minio.GetObjectResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
@@ -42,12 +51,23 @@ public class ExcelController {
     @Autowired
     private ThreadMonitoringService threadMonitoringService;
 
+    @Autowired
+    private ExportThroughputTracker throughputTracker;
+
+    @Autowired
+    private ExportProgressTracker progressTracker;
+
+    @Value("${excel.render-executor.retry-after-seconds:5}")
+    private int retryAfterSeconds;
+
     @GetMapping("/export/employees")
-    public CompletableFuture<ResponseEntity<?>> exportEmployees(@RequestParam(defaultValue = "10") int count) {
+    public CompletableFuture<ResponseEntity<?>> exportEmployees(
+            @RequestParam(defaultValue = "10") int count,
+            @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("count", count);
         
-        return genericExcelExportService.exportWithTimeout("employees", parameters, 1)
+        return genericExcelExportService.exportWithTimeout("employees", parameters, 1, clientId)
                 .thenApply(result -> {
                     if (result.isImmediate()) {
                         HttpHeaders headers = new HttpHeaders();
@@ -60,17 +80,20 @@ public class ExcelController {
                         response.put("message", result.getMessage());
                         response.put("status", "PROCESSING");
                         response.put("statusUrl", "/api/excel/status/" + result.getTaskId());
+                        response.put("eventsUrl", "/api/excel/status/" + result.getTaskId() + "/events");
                         return ResponseEntity.accepted().body(response);
                     }
                 });
     }
 
     @GetMapping("/export/products")
-    public CompletableFuture<ResponseEntity<?>> exportProducts(@RequestParam(defaultValue = "10") int count) {
+    public CompletableFuture<ResponseEntity<?>> exportProducts(
+            @RequestParam(defaultValue = "10") int count,
+            @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("count", count);
         
-        return genericExcelExportService.exportWithTimeout("products", parameters, 5)
+        return genericExcelExportService.exportWithTimeout("products", parameters, 5, clientId)
                 .thenApply(result -> {
                     if (result.isImmediate()) {
                         HttpHeaders headers = new HttpHeaders();
@@ -83,16 +106,22 @@ public class ExcelController {
                         response.put("message", result.getMessage());
                         response.put("status", "PROCESSING");
                         response.put("statusUrl", "/api/excel/status/" + result.getTaskId());
+                        response.put("eventsUrl", "/api/excel/status/" + result.getTaskId() + "/events");
                         return ResponseEntity.accepted().body(response);
                     }
                 });
     }
 
     @PostMapping("/export/custom")
-    public CompletableFuture<ResponseEntity<?>> exportCustomData(@RequestBody ExcelExportRequest request) {
+    public CompletableFuture<ResponseEntity<?>> exportCustomData(
+            @RequestBody ExcelExportRequest request,
+            @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
         if (request.getTemplatePath() == null || request.getData() == null) {
             return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        if (clientId != null) {
+            request.setClientId(clientId);
+        }
         
         return genericExcelExportService.exportWithTimeout(request, 1)
                 .thenApply(result -> {
@@ -107,21 +136,44 @@ public class ExcelController {
                         response.put("message", result.getMessage());
                         response.put("status", "PROCESSING");
                         response.put("statusUrl", "/api/excel/status/" + result.getTaskId());
+                        response.put("eventsUrl", "/api/excel/status/" + result.getTaskId() + "/events");
                         return ResponseEntity.accepted().body(response);
                     }
                 });
     }
 
+    @PostMapping("/export/{exportType}/stream")
+    public ResponseEntity<StreamingResponseBody> streamExportByType(
+            @PathVariable String exportType,
+            @RequestBody(required = false) Map<String, Object> parameters,
+            @RequestParam(defaultValue = "true") boolean persist) {
+        GenericExcelExportService.StreamingExport export;
+        try {
+            export = genericExcelExportService.startStreamingExport(exportType, parameters, persist);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", export.getFileName());
+        headers.set("X-Export-Task-Id", export.getTaskId());
+        
+        StreamingResponseBody body = outputStream -> genericExcelExportService.streamExport(export, outputStream);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
     @PostMapping("/export/{exportType}")
     public CompletableFuture<ResponseEntity<?>> exportByType(
             @PathVariable String exportType,
-            @RequestBody(required = false) Map<String, Object> parameters) {
+            @RequestBody(required = false) Map<String, Object> parameters,
+            @RequestHeader(value = "X-Client-Id", required = false) String clientId) {
         
         if (parameters == null) {
             parameters = new HashMap<>();
         }
         
-        return genericExcelExportService.exportWithTimeout(exportType, parameters, 5)
+        return genericExcelExportService.exportWithTimeout(exportType, parameters, 5, clientId)
                 .thenApply(result -> {
                     if (result.isImmediate()) {
                         HttpHeaders headers = new HttpHeaders();
@@ -134,6 +186,7 @@ public class ExcelController {
                         response.put("message", result.getMessage());
                         response.put("status", "PROCESSING");
                         response.put("statusUrl", "/api/excel/status/" + result.getTaskId());
+                        response.put("eventsUrl", "/api/excel/status/" + result.getTaskId() + "/events");
                         return ResponseEntity.accepted().body(response);
                     }
                 });
@@ -165,10 +218,16 @@ public class ExcelController {
         response.put("recordCount", task.getRecordCount());
         response.put("createdAt", task.getCreatedAt());
         response.put("completedAt", task.getCompletedAt());
+        response.put("renderMillis", task.getRenderMillis());
+        response.put("fileSize", task.getFileSize());
         
         if (task.getStatus() == ExportTask.ExportStatus.COMPLETED) {
             response.put("downloadUrl", "/api/excel/download/" + taskId);
             response.put("fileName", task.getFileName());
+            if (task.getMinioObjectName() != null) {
+                // re-read through the cache rather than the URL stored when the export finished
+                response.put("presignedUrl", minioService.getDownloadUrl(task.getMinioObjectName()));
+            }
         }
         
         if (task.getStatus() == ExportTask.ExportStatus.FAILED) {
@@ -178,31 +237,79 @@ public class ExcelController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/status/{taskId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamExportStatus(@PathVariable String taskId) {
+        SseEmitter emitter = progressTracker.subscribe(taskId);
+        if (emitter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     @GetMapping("/download/{taskId}")
-    public ResponseEntity<byte[]> downloadFile(@PathVariable String taskId) {
+    public ResponseEntity<StreamingResponseBody> downloadFile(
+            @PathVariable String taskId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader) {
         try {
             ExportTask task = genericExcelExportService.getTaskStatus(taskId);
-            if (task == null || task.getStatus() != ExportTask.ExportStatus.COMPLETED) {
+            if (task == null || task.getStatus() != ExportTask.ExportStatus.COMPLETED || task.getMinioObjectName() == null) {
                 return ResponseEntity.notFound().build();
             }
             
-            InputStream fileStream = minioService.downloadFile(task.getMinioObjectName());
-            byte[] fileData = fileStream.readAllBytes();
-            fileStream.close();
+            GetObjectResponse object = minioService.openFile(task.getMinioObjectName(), singleRange(rangeHeader));
+            if (object == null) {
+                return ResponseEntity.notFound().build();
+            }
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
             headers.setContentDispositionFormData("attachment", task.getFileName());
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            String contentLength = object.headers().get(HttpHeaders.CONTENT_LENGTH);
+            if (contentLength != null) {
+                headers.setContentLength(Long.parseLong(contentLength));
+            }
+            String etag = object.headers().get(HttpHeaders.ETAG);
+            if (etag != null) {
+                headers.set(HttpHeaders.ETAG, etag);
+            }
+            // MinIO answers a ranged GET with Content-Range
+            String contentRange = object.headers().get(HttpHeaders.CONTENT_RANGE);
+            if (contentRange != null) {
+                headers.set(HttpHeaders.CONTENT_RANGE, contentRange);
+            }
             
-            return ResponseEntity.ok()
+            StreamingResponseBody body = outputStream -> {
+                try (GetObjectResponse in = object) {
+                    in.transferTo(outputStream);
+                }
+            };
+            return ResponseEntity.status(contentRange != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
                     .headers(headers)
-                    .body(fileData);
+                    .body(body);
                     
+        } catch (RangeNotSatisfiableException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    private HttpRange singleRange(String rangeHeader) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            // multi-range requests get the whole file, which HTTP allows
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> status = new HashMap<>();
@@ -216,6 +323,8 @@ public class ExcelController {
     public ResponseEntity<Map<String, Object>> getThreadStatus() {
         Map<String, Object> response = new HashMap<>();
         response.put("threadPool", threadMonitoringService.getThreadPoolStatus());
+        response.put("renderPool", threadMonitoringService.getRenderPoolStatus());
+        response.put("throughput", throughputTracker.getStatistics());
         response.put("currentThread", threadMonitoringService.getCurrentThreadInfo());
         response.put("timestamp", LocalDateTime.now().toString());
         return ResponseEntity.ok(response);
@@ -250,9 +359,20 @@ public class ExcelController {
                     
                     if (!result.isImmediate()) {
                         response.put("statusUrl", "/api/excel/status/" + result.getTaskId());
+                        response.put("eventsUrl", "/api/excel/status/" + result.getTaskId() + "/events");
                     }
                     
                     return ResponseEntity.ok(response);
                 });
     }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handleExportRejected(TaskRejectedException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Export capacity exhausted, retry later");
+        response.put("retryAfterSeconds", retryAfterSeconds);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
 }
@@ -41,6 +41,12 @@ public class ExportTask {
     
     @Column
     private Integer recordCount;
+    
+    @Column
+    private Long renderMillis;
+    
+    @Column
+    private Long fileSize;
 
     public enum ExportStatus {
         PENDING, PROCESSING, COMPLETED, FAILED
@@ -144,4 +150,20 @@ public class ExportTask {
     public void setRecordCount(Integer recordCount) {
         this.recordCount = recordCount;
     }
+
+    public Long getRenderMillis() {
+        return renderMillis;
+    }
+
+    public void setRenderMillis(Long renderMillis) {
+        this.renderMillis = renderMillis;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
 }
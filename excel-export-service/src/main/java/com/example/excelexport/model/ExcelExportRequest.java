@@ -8,6 +8,7 @@ public class ExcelExportRequest {
     private String fileName;
     private Map<String, Object> data;
     private Map<String, Object> parameters;
+    private String clientId;
 
     public ExcelExportRequest() {}
 
@@ -57,4 +58,12 @@ public class ExcelExportRequest {
     public void setParameters(Map<String, Object> parameters) {
         this.parameters = parameters;
     }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
 }
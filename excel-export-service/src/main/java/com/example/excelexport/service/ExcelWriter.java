@@ -6,5 +6,11 @@ import java.util.Map;
 public interface ExcelWriter {
     void writeFromTemplate(OutputStream outStream, String templateName, Map<String, Object> data);
     
+    /**
+     * Renders through an SXSSF workbook so only a window of rows is kept in memory.
+     * Formulas are not re-evaluated.
+     */
+    void writeFromTemplateStreaming(OutputStream outStream, String templateName, Map<String, Object> data);
+    
     byte[] writeFromTemplateToByte(String pathTemplate, Map<String, Object> data);
 }
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 @Service
 public class ExportConfigRegistry {
@@ -17,16 +19,27 @@ public class ExportConfigRegistry {
         private final String templatePath;
         private final String fileNamePrefix;
         private final ExcelDataProvider dataProvider;
+        private final boolean streaming;
         
         public ExportConfig(String templatePath, String fileNamePrefix, ExcelDataProvider dataProvider) {
+            this(templatePath, fileNamePrefix, dataProvider, false);
+        }
+        
+        /**
+         * {@code streaming} renders through SXSSF: the template needs {@code jx:area} comments, and
+         * formulas are not re-evaluated in the output.
+         */
+        public ExportConfig(String templatePath, String fileNamePrefix, ExcelDataProvider dataProvider, boolean streaming) {
             this.templatePath = templatePath;
             this.fileNamePrefix = fileNamePrefix;
             this.dataProvider = dataProvider;
+            this.streaming = streaming;
         }
         
         public String getTemplatePath() { return templatePath; }
         public String getFileNamePrefix() { return fileNamePrefix; }
         public ExcelDataProvider getDataProvider() { return dataProvider; }
+        public boolean isStreaming() { return streaming; }
         
         public String generateFileName() {
             String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
@@ -46,6 +59,12 @@ public class ExportConfigRegistry {
         return exportConfigs.containsKey(exportType);
     }
     
+    public Set<String> getTemplatePaths() {
+        return exportConfigs.values().stream()
+                .map(ExportConfig::getTemplatePath)
+                .collect(Collectors.toSet());
+    }
+    
     public Map<String, Object> generateExportData(String exportType, Map<String, Object> parameters) {
         ExportConfig config = getExportConfig(exportType);
         if (config == null) {
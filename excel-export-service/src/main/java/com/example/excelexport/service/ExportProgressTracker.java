@@ -0,0 +1,270 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.ExportTask;
+import com.example.excelexport.repository.ExportTaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live progress of running exports, pushed to Server-Sent Events subscribers. The render path only
+ * bumps atomic counters; a single publisher thread samples them every {@code interval-millis} and
+ * sends a {@code progress} event to each subscriber whose export moved. Status transitions are sent
+ * as {@code status} events as they happen, and the stream is closed once the export completes or fails.
+ */
+@Service
+public class ExportProgressTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportProgressTracker.class);
+
+    public static final String PHASE_QUEUED = "queued";
+
+    private final Map<String, Progress> progressByTask = new ConcurrentHashMap<>();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ExportProgress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    private ExportTaskRepository exportTaskRepository;
+
+    @Value("${excel.progress.interval-millis:500}")
+    private long intervalMillis;
+
+    @Value("${excel.progress.emitter-timeout-seconds:600}")
+    private long emitterTimeoutSeconds;
+
+    /**
+     * Counters for one export. Written by the render thread, read by the publisher.
+     */
+    public static class Progress {
+        private final AtomicLong rowsRendered = new AtomicLong();
+        private final AtomicLong bytesWritten = new AtomicLong();
+        private volatile long totalRows;
+        private volatile String phase = PHASE_QUEUED;
+        private volatile long renderStartedAt;
+
+        // last published values, guarded by this Progress
+        private long publishedRows = -1;
+        private long publishedBytes = -1;
+        private String publishedPhase;
+
+        Progress(long totalRows) {
+            this.totalRows = totalRows;
+        }
+
+        public void setPhase(String phase) {
+            if (ExcelExportMetrics.PHASE_RENDER.equals(phase)) {
+                renderStartedAt = System.currentTimeMillis();
+            }
+            this.phase = phase;
+        }
+
+        public void setTotalRows(long totalRows) {
+            this.totalRows = totalRows;
+        }
+
+        public void rowRendered() {
+            rowsRendered.incrementAndGet();
+        }
+
+        /**
+         * jxls writes nothing until the workbook is rendered, so the first byte also ends the render phase.
+         */
+        public void bytesWritten(long count) {
+            bytesWritten.addAndGet(count);
+            if (!ExcelExportMetrics.PHASE_SERIALIZE.equals(phase)) {
+                phase = ExcelExportMetrics.PHASE_SERIALIZE;
+            }
+        }
+
+        private boolean changed() {
+            return rowsRendered.get() != publishedRows || bytesWritten.get() != publishedBytes || !phase.equals(publishedPhase);
+        }
+
+        private Map<String, Object> snapshot(String taskId) {
+            long total = totalRows;
+            // a template may walk a collection more than once
+            long rows = total > 0 ? Math.min(rowsRendered.get(), total) : rowsRendered.get();
+            long bytes = bytesWritten.get();
+            String currentPhase = phase;
+            publishedRows = rowsRendered.get();
+            publishedBytes = bytes;
+            publishedPhase = currentPhase;
+
+            Map<String, Object> event = new HashMap<>();
+            event.put("taskId", taskId);
+            event.put("phase", currentPhase);
+            event.put("rowsRendered", rows);
+            event.put("totalRows", total);
+            event.put("bytesWritten", bytes);
+            if (ExcelExportMetrics.PHASE_RENDER.equals(currentPhase) && rows > 0 && total > rows) {
+                long elapsed = System.currentTimeMillis() - renderStartedAt;
+                event.put("etaMillis", elapsed * (total - rows) / rows);
+            }
+            return event;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        publisher.scheduleWithFixedDelay(this::publishProgress, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        subscribers.clear();
+    }
+
+    public void track(String taskId, Integer expectedRows) {
+        progressByTask.put(taskId, new Progress(expectedRows != null ? expectedRows : 0));
+    }
+
+    /**
+     * Never null: an export that is not tracked, e.g. already finished, gets counters nobody reads.
+     */
+    public Progress get(String taskId) {
+        Progress progress = progressByTask.get(taskId);
+        return progress != null ? progress : new Progress(0);
+    }
+
+    /**
+     * @return null if the task does not exist
+     */
+    public SseEmitter subscribe(String taskId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(emitterTimeoutSeconds));
+        emitter.onCompletion(() -> removeSubscriber(taskId, emitter));
+        emitter.onTimeout(() -> removeSubscriber(taskId, emitter));
+        emitter.onError(e -> removeSubscriber(taskId, emitter));
+        subscribers.computeIfAbsent(taskId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+
+        // read after registering so a transition in between is never missed
+        ExportTask task = exportTaskRepository.findByTaskId(taskId).orElse(null);
+        if (task == null) {
+            removeSubscriber(taskId, emitter);
+            return null;
+        }
+
+        send(taskId, emitter, "status", statusEvent(task));
+        if (isFinished(task)) {
+            emitter.complete();
+            return emitter;
+        }
+        Progress progress = progressByTask.get(taskId);
+        if (progress != null) {
+            synchronized (progress) {
+                send(taskId, emitter, "progress", progress.snapshot(taskId));
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends the task's current status; a completed or failed task also ends its streams and tracking.
+     */
+    public void publishStatus(ExportTask task) {
+        String taskId = task.getTaskId();
+        boolean finished = isFinished(task);
+        if (finished) {
+            progressByTask.remove(taskId);
+        }
+        List<SseEmitter> emitters = finished ? subscribers.remove(taskId) : subscribers.get(taskId);
+        if (emitters == null) {
+            return;
+        }
+        Map<String, Object> event = statusEvent(task);
+        for (SseEmitter emitter : emitters) {
+            send(taskId, emitter, "status", event);
+            if (finished) {
+                emitter.complete();
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("trackedExports", progressByTask.size());
+        statistics.put("subscribedExports", subscribers.size());
+        statistics.put("subscribers", subscribers.values().stream().mapToInt(List::size).sum());
+        return statistics;
+    }
+
+    private void publishProgress() {
+        try {
+            subscribers.forEach((taskId, emitters) -> {
+                Progress progress = progressByTask.get(taskId);
+                if (progress == null) {
+                    return;
+                }
+                synchronized (progress) {
+                    if (!progress.changed()) {
+                        return;
+                    }
+                    Map<String, Object> event = progress.snapshot(taskId);
+                    for (SseEmitter emitter : emitters) {
+                        send(taskId, emitter, "progress", event);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("⚠️ Failed to publish export progress: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, Object> statusEvent(ExportTask task) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("taskId", task.getTaskId());
+        event.put("status", task.getStatus().toString());
+        event.put("exportType", task.getExportType());
+        event.put("recordCount", task.getRecordCount());
+        if (task.getStatus() == ExportTask.ExportStatus.COMPLETED) {
+            event.put("downloadUrl", "/api/excel/download/" + task.getTaskId());
+            event.put("fileName", task.getFileName());
+            event.put("fileSize", task.getFileSize());
+        }
+        if (task.getStatus() == ExportTask.ExportStatus.FAILED) {
+            event.put("errorMessage", task.getErrorMessage());
+        }
+        return event;
+    }
+
+    private boolean isFinished(ExportTask task) {
+        return task.getStatus() == ExportTask.ExportStatus.COMPLETED || task.getStatus() == ExportTask.ExportStatus.FAILED;
+    }
+
+    private void send(String taskId, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // client went away or the emitter already completed
+            removeSubscriber(taskId, emitter);
+        }
+    }
+
+    private void removeSubscriber(String taskId, SseEmitter emitter) {
+        subscribers.computeIfPresent(taskId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
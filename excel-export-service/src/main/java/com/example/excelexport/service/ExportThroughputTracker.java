@@ -0,0 +1,109 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.ExportTask;
+import com.example.excelexport.repository.ExportTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per export type moving averages (EWMA) of render throughput, used to predict how long an export
+ * of a given row count will take before starting it.
+ */
+@Service
+public class ExportThroughputTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportThroughputTracker.class);
+
+    private final Map<String, Throughput> throughputByType = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ExportTaskRepository exportTaskRepository;
+
+    @Value("${excel.routing.ewma-alpha:0.3}")
+    private double alpha;
+
+    @Value("${excel.routing.min-samples:3}")
+    private int minSamples;
+
+    private static class Throughput {
+        private double rowsPerSecond;
+        private double bytesPerRow;
+        private long samples;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistory() {
+        List<ExportTask> tasks = exportTaskRepository
+                .findTop500ByStatusAndRenderMillisNotNullOrderByCompletedAtDesc(ExportTask.ExportStatus.COMPLETED);
+        // oldest first so the most recent exports carry the most weight
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            ExportTask task = tasks.get(i);
+            if (task.getRecordCount() != null) {
+                record(task.getExportType(), task.getRecordCount(), task.getRenderMillis(),
+                       task.getFileSize() != null ? task.getFileSize() : 0);
+            }
+        }
+        logger.info("📈 Throughput history loaded from {} completed export(s)", tasks.size());
+    }
+
+    public void record(String exportType, long rows, long renderMillis, long fileSize) {
+        if (exportType == null || rows <= 0 || renderMillis <= 0) {
+            return;
+        }
+        double rowsPerSecond = rows * 1000.0 / renderMillis;
+        double bytesPerRow = (double) fileSize / rows;
+
+        Throughput throughput = throughputByType.computeIfAbsent(exportType, type -> new Throughput());
+        synchronized (throughput) {
+            if (throughput.samples == 0) {
+                throughput.rowsPerSecond = rowsPerSecond;
+                throughput.bytesPerRow = bytesPerRow;
+            } else {
+                throughput.rowsPerSecond += alpha * (rowsPerSecond - throughput.rowsPerSecond);
+                throughput.bytesPerRow += alpha * (bytesPerRow - throughput.bytesPerRow);
+            }
+            throughput.samples++;
+        }
+    }
+
+    /**
+     * Empty until the type has {@code excel.routing.min-samples} completed exports.
+     */
+    public OptionalLong predictRenderMillis(String exportType, long rows) {
+        Throughput throughput = exportType != null ? throughputByType.get(exportType) : null;
+        if (throughput == null || rows <= 0) {
+            return OptionalLong.empty();
+        }
+        synchronized (throughput) {
+            if (throughput.samples < minSamples || throughput.rowsPerSecond <= 0) {
+                return OptionalLong.empty();
+            }
+            return OptionalLong.of((long) (rows * 1000.0 / throughput.rowsPerSecond));
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        throughputByType.forEach((exportType, throughput) -> {
+            synchronized (throughput) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("rowsPerSecond", Math.round(throughput.rowsPerSecond));
+                entry.put("bytesPerRow", Math.round(throughput.bytesPerRow));
+                entry.put("samples", throughput.samples);
+                statistics.put(exportType, entry);
+            }
+        });
+        return statistics;
+    }
+}
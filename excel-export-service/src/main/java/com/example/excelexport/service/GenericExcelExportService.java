@@ -3,23 +3,47 @@ package com.example.excelexport.service;
 import com.example.excelexport.entity.ExportTask;
 import com.example.excelexport.model.ExcelExportRequest;
 import com.example.excelexport.repository.ExportTaskRepository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class GenericExcelExportService {
 
     private static final Logger logger = LoggerFactory.getLogger(GenericExcelExportService.class);
 
+    private static final String CUSTOM_EXPORT_TYPE = "custom";
+    private static final String EXCEL_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private final Map<String, InFlightExport> inFlightExports = new ConcurrentHashMap<>();
+
+    private Semaphore streamingPermits;
+
     @Autowired
     private ExcelWriter excelWriter;
     
@@ -32,10 +56,65 @@ public class GenericExcelExportService {
     @Autowired
     private ExportConfigRegistry exportConfigRegistry;
 
+    @Autowired
+    @Qualifier("exportRenderExecutor")
+    private Executor exportRenderExecutor;
+
+    @Autowired
+    @Qualifier("exportTaskExecutor")
+    private PriorityExportScheduler exportTaskExecutor;
+
+    @Autowired
+    private ExportThroughputTracker throughputTracker;
+
+    @Autowired
+    private ExcelExportMetrics exportMetrics;
+
+    @Autowired
+    private ExportProgressTracker progressTracker;
+
+    @Value("${excel.routing.enabled:true}")
+    private boolean predictiveRoutingEnabled;
+
+    @Value("${excel.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${excel.streaming-export.max-concurrent:8}")
+    private int maxConcurrentStreams;
+
+    @Value("${excel.render-buffer.memory-threshold-bytes:8388608}")
+    private int renderBufferMemoryThreshold;
+
+    @PostConstruct
+    public void initStreamingPermits() {
+        streamingPermits = new Semaphore(maxConcurrentStreams);
+    }
+
+    /**
+     * The render shared by concurrent identical requests. {@code result} completes with the response
+     * given to the request that started it: the workbook, or the task id once it was handed off.
+     */
+    private static class InFlightExport {
+        private final String taskId;
+        private final CompletableFuture<ExportResult> result = new CompletableFuture<>();
+        private volatile boolean background;
+
+        InFlightExport(String taskId) {
+            this.taskId = taskId;
+        }
+    }
+
     public CompletableFuture<ExportResult> exportWithTimeout(ExcelExportRequest request, long timeoutSeconds) {
         String taskId = UUID.randomUUID().toString();
         String currentThread = Thread.currentThread().getName();
         
+        String coalescingKey = coalescingKey(request);
+        InFlightExport flight = coalescingKey != null ? new InFlightExport(taskId) : null;
+        InFlightExport existing = coalescingKey != null ? inFlightExports.putIfAbsent(coalescingKey, flight) : null;
+        if (existing != null) {
+            return joinInFlight(existing, request, timeoutSeconds);
+        }
+        
         logger.info("🚀 Starting export - TaskId: {}, Type: {}, Thread: {}, Timeout: {}s", 
                    taskId, request.getExportType(), currentThread, timeoutSeconds);
         
@@ -43,21 +122,64 @@ public class GenericExcelExportService {
         if (request.getParameters() != null && request.getParameters().containsKey("count")) {
             task.setRecordCount((Integer) request.getParameters().get("count"));
         }
+        Timer.Sample historyUpdate = exportMetrics.startPhase();
         exportTaskRepository.save(task);
+        exportMetrics.endPhase(historyUpdate, metricsExportType(request.getExportType()), ExcelExportMetrics.PHASE_HISTORY);
+        progressTracker.track(taskId, task.getRecordCount());
+
+        OptionalLong predictedMillis = predictRenderMillis(task);
+        boolean routeToBackground = predictedMillis.isPresent() && predictedMillis.getAsLong() > timeoutSeconds * 1000;
+        if (flight != null) {
+            flight.background = routeToBackground;
+        }
+
+        if (routeToBackground) {
+            logger.info("🔮 Export predicted to take {}ms (timeout {}s) - TaskId: {}, routing straight to background", 
+                       predictedMillis.getAsLong(), timeoutSeconds, taskId);
+            // queued by priority class and client; nothing waits for it, so it renders straight into MinIO
+            long estimatedRows = task.getRecordCount() != null ? task.getRecordCount() : 0;
+            CompletableFuture<Void> backgroundExport;
+            try {
+                backgroundExport = CompletableFuture.runAsync(() -> exportToMinio(taskId, request),
+                        runnable -> exportTaskExecutor.submit(runnable, request.getClientId(), estimatedRows,
+                                () -> updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, "Export service shut down before the export started")));
+            } catch (TaskRejectedException e) {
+                throw rejectExport(taskId, coalescingKey, flight, e);
+            }
+            
+            ExportResult queued = new ExportResult(taskId, false, 
+                "Export is expected to take about " + Math.max(1, predictedMillis.getAsLong() / 1000) + "s. Processing in background...", null);
+            if (flight != null) {
+                backgroundExport.whenComplete((ignored, throwable) -> inFlightExports.remove(coalescingKey, flight));
+                flight.result.complete(queued);
+            }
+            return CompletableFuture.completedFuture(queued);
+        }
 
         long startTime = System.currentTimeMillis();
-        CompletableFuture<ExportResult> exportFuture = performExport(taskId, request);
+        CompletableFuture<RenderedExport> exportFuture;
+        try {
+            exportFuture = performExport(taskId, request, exportRenderExecutor);
+        } catch (TaskRejectedException e) {
+            throw rejectExport(taskId, coalescingKey, flight, e);
+        }
         
-        return exportFuture.orTimeout(timeoutSeconds, TimeUnit.SECONDS)
-                .handle((result, throwable) -> {
+        if (flight != null) {
+            // a request arriving after the render finished starts a fresh export
+            exportFuture.whenComplete((rendered, throwable) -> inFlightExports.remove(coalescingKey, flight));
+        }
+        
+        // the timeout applies to a copy so the export itself keeps running and can be handed off
+        CompletableFuture<ExportResult> response = exportFuture.copy().orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .handle((rendered, throwable) -> {
                     long duration = System.currentTimeMillis() - startTime;
                     String handlerThread = Thread.currentThread().getName();
                     
                     if (throwable != null) {
                         if (throwable instanceof java.util.concurrent.TimeoutException) {
-                            logger.warn("⏰ Export TIMEOUT after {}ms - TaskId: {}, Handler Thread: {}, Starting async processing", 
+                            logger.warn("⏰ Export TIMEOUT after {}ms - TaskId: {}, Handler Thread: {}, Handing off to background", 
                                        duration, taskId, handlerThread);
-                            processAsyncExport(taskId, request);
+                            handOff(taskId, exportFuture, startTime);
                             return new ExportResult(taskId, false, "Export is taking longer than expected. Processing in background...", null);
                         } else {
                             logger.error("❌ Export FAILED after {}ms - TaskId: {}, Handler Thread: {}, Error: {}", 
@@ -67,24 +189,209 @@ public class GenericExcelExportService {
                         }
                     }
                     
+                    // the deadline was met, so this is the only point where the workbook becomes a byte[]
+                    byte[] data;
+                    try {
+                        data = rendered.content.toByteArray();
+                    } catch (IOException e) {
+                        updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, e.getMessage());
+                        return new ExportResult(taskId, false, "Export failed: " + e.getMessage(), null);
+                    } finally {
+                        rendered.content.discard();
+                    }
+                    
                     logger.info("✅ Export COMPLETED immediately after {}ms - TaskId: {}, Handler Thread: {}", 
                                duration, taskId, handlerThread);
-                    return result;
+                    updateTaskFileName(taskId, rendered.fileName);
+                    updateTaskStatus(taskId, ExportTask.ExportStatus.COMPLETED, null);
+                    return new ExportResult(taskId, true, "Export completed successfully", data, rendered.fileName);
+                });
+        
+        if (flight != null) {
+            response.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    flight.result.completeExceptionally(throwable);
+                } else {
+                    flight.result.complete(result);
+                }
+            });
+        }
+        return response;
+    }
+
+    private TaskRejectedException rejectExport(String taskId, String coalescingKey, InFlightExport flight, TaskRejectedException e) {
+        logger.warn("🚦 Export REJECTED - TaskId: {}, Thread: {}, Reason: {}", taskId, Thread.currentThread().getName(), e.getMessage());
+        updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, "Rejected: " + e.getMessage());
+        if (flight != null) {
+            inFlightExports.remove(coalescingKey, flight);
+            flight.result.completeExceptionally(e);
+        }
+        return e;
+    }
+
+    /**
+     * Attaches a request to an identical export already running: it gets the same response as the
+     * request that started it, or the shared task id if its own timeout expires first.
+     */
+    private CompletableFuture<ExportResult> joinInFlight(InFlightExport flight, ExcelExportRequest request, long timeoutSeconds) {
+        logger.info("🔗 Joining in-flight export - TaskId: {}, Type: {}, Thread: {}", 
+                   flight.taskId, request.getExportType(), Thread.currentThread().getName());
+        exportMetrics.recordCoalesced(metricsExportType(request.getExportType()));
+        
+        if (flight.background) {
+            return CompletableFuture.completedFuture(new ExportResult(flight.taskId, false, 
+                "An identical export is already processing in background...", null));
+        }
+        
+        return flight.result.copy().orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .handle((result, throwable) -> {
+                    if (throwable == null) {
+                        return result;
+                    }
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null 
+                            ? throwable.getCause() : throwable;
+                    if (cause instanceof TimeoutException) {
+                        return new ExportResult(flight.taskId, false, "Export is taking longer than expected. Processing in background...", null);
+                    }
+                    if (cause instanceof TaskRejectedException) {
+                        throw (TaskRejectedException) cause;
+                    }
+                    return new ExportResult(flight.taskId, false, "Export failed: " + cause.getMessage(), null);
                 });
     }
 
+    /**
+     * Only requests whose data is generated from the export config are coalesced; requests that
+     * carry their own data are always rendered separately.
+     */
+    private String coalescingKey(ExcelExportRequest request) {
+        if (!coalescingEnabled || request.getData() != null || request.getExportType() == null) {
+            return null;
+        }
+        Map<String, Object> parameters = request.getParameters() != null ? new TreeMap<>(request.getParameters()) : Map.of();
+        return request.getExportType() + "|" + request.getTemplatePath() + "|" + request.getFileName() + "|" + parameters;
+    }
+
     public CompletableFuture<ExportResult> exportWithTimeout(String exportType, Map<String, Object> parameters, long timeoutSeconds) {
+        return exportWithTimeout(exportType, parameters, timeoutSeconds, null);
+    }
+
+    public CompletableFuture<ExportResult> exportWithTimeout(String exportType, Map<String, Object> parameters,
+                                                             long timeoutSeconds, String clientId) {
         ExcelExportRequest request = createExportRequest(exportType, parameters);
+        request.setClientId(clientId);
         return exportWithTimeout(request, timeoutSeconds);
     }
 
-    private CompletableFuture<ExportResult> performExport(String taskId, ExcelExportRequest request) {
+    /**
+     * Registers an export whose workbook is written straight into the caller's stream by
+     * {@link #streamExport}. Admission is checked here, before any response is committed.
+     *
+     * @throws TaskRejectedException when {@code excel.streaming-export.max-concurrent} streams are running
+     */
+    public StreamingExport startStreamingExport(String exportType, Map<String, Object> parameters, boolean persist) {
+        if (exportConfigRegistry.getExportConfig(exportType) == null) {
+            throw new IllegalArgumentException("Unsupported export type: " + exportType);
+        }
+        if (!streamingPermits.tryAcquire()) {
+            throw new TaskRejectedException("Too many streaming exports in progress (" + maxConcurrentStreams + ")");
+        }
+        
+        String taskId = UUID.randomUUID().toString();
+        ExcelExportRequest request = createExportRequest(exportType, parameters);
+        ExportTask task = new ExportTask(taskId, exportType);
+        if (parameters != null && parameters.get("count") instanceof Integer) {
+            task.setRecordCount((Integer) parameters.get("count"));
+        }
+        Timer.Sample historyUpdate = exportMetrics.startPhase();
+        exportTaskRepository.save(task);
+        exportMetrics.endPhase(historyUpdate, exportType, ExcelExportMetrics.PHASE_HISTORY);
+        progressTracker.track(taskId, task.getRecordCount());
+        
+        logger.info("🚿 Streaming export registered - TaskId: {}, Type: {}, Persist: {}", taskId, exportType, persist);
+        return new StreamingExport(taskId, determineFileName(request), request, persist);
+    }
+
+    /**
+     * Renders into {@code responseStream} as the workbook is produced, so the first bytes leave
+     * before rendering ends and the file is never held as a byte[]. With {@code persist} the same
+     * bytes are teed into a MinIO upload; if the client goes away the upload still completes.
+     */
+    public void streamExport(StreamingExport export, OutputStream responseStream) {
+        String taskId = export.getTaskId();
+        String workerThread = Thread.currentThread().getName();
+        long startTime = System.currentTimeMillis();
+        ExportProgressTracker.Progress progress = progressTracker.get(taskId);
+        
+        try {
+            updateTaskStatus(taskId, ExportTask.ExportStatus.PROCESSING, null);
+            
+            long fileSize;
+            if (export.isPersist()) {
+                long[] written = new long[1];
+                String objectName = minioService.uploadFile(metricsExportType(export.getRequest().getExportType()), 
+                    export.getFileName(), EXCEL_CONTENT_TYPE, 
+                    minioStream -> written[0] = writeExcelData(export.getRequest(), 
+                        new TeeOutputStream(minioStream, responseStream), progress));
+                fileSize = written[0];
+                
+                ExportTask task = exportTaskRepository.findByTaskId(taskId).orElseThrow();
+                task.setMinioObjectName(objectName);
+                task.setDownloadUrl(minioService.getDownloadUrl(objectName));
+                exportTaskRepository.save(task);
+            } else {
+                fileSize = writeExcelData(export.getRequest(), responseStream, progress);
+            }
+            
+            long duration = System.currentTimeMillis() - startTime;
+            recordRenderStats(taskId, duration, fileSize);
+            updateTaskFileName(taskId, export.getFileName());
+            updateTaskStatus(taskId, ExportTask.ExportStatus.COMPLETED, null);
+            logger.info("✅ Streaming export COMPLETED in {}ms - TaskId: {}, Thread: {}, Size: {} bytes", 
+                       duration, taskId, workerThread, fileSize);
+        } catch (RuntimeException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("💥 Streaming export FAILED after {}ms - TaskId: {}, Thread: {}, Error: {}", 
+                        duration, taskId, workerThread, e.getMessage());
+            updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, e.getMessage());
+            throw e;
+        } finally {
+            streamingPermits.release();
+        }
+    }
+
+    /**
+     * Uploads the export once its render finishes. This is called from the {@code orTimeout} handler,
+     * which runs on the JDK's single shared delayer thread, and the render may already be done by
+     * then; the upload is therefore always submitted to {@code exportRenderExecutor} rather than run
+     * by whichever thread completes the future.
+     */
+    private void handOff(String taskId, CompletableFuture<RenderedExport> exportFuture, long startTime) {
+        exportFuture.thenAcceptAsync(rendered -> completeInBackground(taskId, rendered, startTime), exportRenderExecutor)
+                .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null 
+                            ? throwable.getCause() : throwable;
+                    // a failed render already marked the task; only a rejected upload is left to handle
+                    if (cause instanceof RejectedExecutionException) {
+                        logger.warn("🚦 Hand-off upload REJECTED - TaskId: {}, Reason: {}", taskId, cause.getMessage());
+                        exportFuture.thenAccept(rendered -> rendered.content.discard());
+                        updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, "Rejected: " + cause.getMessage());
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Renders into a {@link RenderBuffer}; whoever consumes the result must discard its content.
+     */
+    private CompletableFuture<RenderedExport> performExport(String taskId, ExcelExportRequest request, Executor executor) {
         return CompletableFuture.supplyAsync(() -> {
             String workerThread = Thread.currentThread().getName();
             long startTime = System.currentTimeMillis();
             
             logger.info("🔄 Processing export in worker thread - TaskId: {}, Worker Thread: {}", taskId, workerThread);
             
+            RenderBuffer content = new RenderBuffer(renderBufferMemoryThreshold);
             try {
                 updateTaskStatus(taskId, ExportTask.ExportStatus.PROCESSING, null);
                 
@@ -97,79 +404,127 @@ public class GenericExcelExportService {
                     }
                 }
                 
-                byte[] excelData = generateExcelData(request);
+                writeExcelData(request, content, progressTracker.get(taskId));
+                content.close();
                 String fileName = determineFileName(request);
                 
                 long duration = System.currentTimeMillis() - startTime;
-                logger.info("📊 Excel data generated in {}ms - TaskId: {}, Worker Thread: {}, File: {}", 
-                           duration, taskId, workerThread, fileName);
+                logger.info("📊 Excel data generated in {}ms - TaskId: {}, Worker Thread: {}, File: {}, Size: {} bytes{}", 
+                           duration, taskId, workerThread, fileName, content.size(), content.isInMemory() ? "" : " (spilled to disk)");
+                recordRenderStats(taskId, duration, content.size());
                 
-                updateTaskStatus(taskId, ExportTask.ExportStatus.COMPLETED, null);
-                updateTaskFileName(taskId, fileName);
-                
-                return new ExportResult(taskId, true, "Export completed successfully", excelData, fileName);
+                return new RenderedExport(fileName, content);
             } catch (Exception e) {
+                content.discard();
                 long duration = System.currentTimeMillis() - startTime;
                 logger.error("💥 Export processing failed after {}ms - TaskId: {}, Worker Thread: {}, Error: {}", 
                             duration, taskId, workerThread, e.getMessage());
                 updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, e.getMessage());
                 throw new RuntimeException("Export failed", e);
             }
-        });
+        }, executor);
     }
 
-    @Async("exportTaskExecutor")
-    public void processAsyncExport(String taskId, ExcelExportRequest request) {
-        String asyncThread = Thread.currentThread().getName();
+    /**
+     * Background export that never had a sync attempt: renders straight into a multipart MinIO upload,
+     * so the workbook is never buffered.
+     */
+    private void exportToMinio(String taskId, ExcelExportRequest request) {
+        String workerThread = Thread.currentThread().getName();
         long startTime = System.currentTimeMillis();
         
-        logger.info("🔀 Starting ASYNC export processing - TaskId: {}, Async Thread: {}", taskId, asyncThread);
+        logger.info("🔀 Processing background export - TaskId: {}, Thread: {}", taskId, workerThread);
         
         try {
             updateTaskStatus(taskId, ExportTask.ExportStatus.PROCESSING, null);
-            
-            byte[] excelData = generateExcelData(request);
             String fileName = determineFileName(request);
+            ExportProgressTracker.Progress progress = progressTracker.get(taskId);
             
-            long dataGenTime = System.currentTimeMillis() - startTime;
-            logger.info("📊 Async Excel data generated in {}ms - TaskId: {}, Async Thread: {}", 
-                       dataGenTime, taskId, asyncThread);
+            logger.info("☁️ Streaming Excel to MinIO - TaskId: {}, File: {}, Thread: {}", taskId, fileName, workerThread);
+            long[] written = new long[1];
+            String objectName = minioService.uploadFile(metricsExportType(request.getExportType()), fileName, EXCEL_CONTENT_TYPE,
+                outputStream -> written[0] = writeExcelData(request, outputStream, progress));
+            recordRenderStats(taskId, System.currentTimeMillis() - startTime, written[0]);
+            completeUploaded(taskId, fileName, objectName);
             
-            logger.info("☁️ Uploading to MinIO - TaskId: {}, File: {}, Thread: {}", taskId, fileName, asyncThread);
-            String objectName = minioService.uploadFile(excelData, fileName, 
-                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-            String downloadUrl = minioService.getDownloadUrl(objectName);
+            long totalTime = System.currentTimeMillis() - startTime;
+            logger.info("🎉 Background export COMPLETED in {}ms - TaskId: {}, Thread: {}, Size: {} bytes, File uploaded to MinIO", 
+                       totalTime, taskId, workerThread, written[0]);
             
-            ExportTask task = exportTaskRepository.findByTaskId(taskId).orElseThrow();
-            task.setStatus(ExportTask.ExportStatus.COMPLETED);
-            task.setFileName(fileName);
-            task.setMinioObjectName(objectName);
-            task.setDownloadUrl(downloadUrl);
-            task.setCompletedAt(LocalDateTime.now());
-            exportTaskRepository.save(task);
+        } catch (Exception e) {
+            long totalTime = System.currentTimeMillis() - startTime;
+            logger.error("💥 Background export FAILED after {}ms - TaskId: {}, Thread: {}, Error: {}", 
+                        totalTime, taskId, workerThread, e.getMessage());
+            updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Uploads a finished workbook that was not returned in the response, instead of rendering it a
+     * second time. Runs on an {@code exportRenderExecutor} thread for timed-out exports.
+     */
+    private void completeInBackground(String taskId, RenderedExport rendered, long startTime) {
+        String workerThread = Thread.currentThread().getName();
+        
+        try {
+            progressTracker.get(taskId).setPhase(ExcelExportMetrics.PHASE_UPLOAD);
+            
+            logger.info("☁️ Uploading handed-off export to MinIO - TaskId: {}, File: {}, Thread: {}", 
+                       taskId, rendered.fileName, workerThread);
+            String objectName = minioService.uploadFile(metricsExportType(getTaskStatus(taskId).getExportType()), 
+                rendered.fileName, EXCEL_CONTENT_TYPE, rendered.content::writeTo);
+            completeUploaded(taskId, rendered.fileName, objectName);
             
             long totalTime = System.currentTimeMillis() - startTime;
-            logger.info("🎉 ASYNC export COMPLETED in {}ms - TaskId: {}, Thread: {}, File uploaded to MinIO", 
-                       totalTime, taskId, asyncThread);
+            logger.info("🎉 Background export COMPLETED in {}ms - TaskId: {}, Thread: {}, File uploaded to MinIO", 
+                       totalTime, taskId, workerThread);
             
         } catch (Exception e) {
             long totalTime = System.currentTimeMillis() - startTime;
-            logger.error("💥 ASYNC export FAILED after {}ms - TaskId: {}, Thread: {}, Error: {}", 
-                        totalTime, taskId, asyncThread, e.getMessage());
+            logger.error("💥 Background export FAILED after {}ms - TaskId: {}, Thread: {}, Error: {}", 
+                        totalTime, taskId, workerThread, e.getMessage());
             updateTaskStatus(taskId, ExportTask.ExportStatus.FAILED, e.getMessage());
+        } finally {
+            rendered.content.discard();
         }
     }
 
-    private byte[] generateExcelData(ExcelExportRequest request) {
+    private void completeUploaded(String taskId, String fileName, String objectName) {
+        String downloadUrl = minioService.getDownloadUrl(objectName);
+        
+        Timer.Sample historyUpdate = exportMetrics.startPhase();
+        ExportTask task = exportTaskRepository.findByTaskId(taskId).orElseThrow();
+        String exportType = metricsExportType(task.getExportType());
+        task.setStatus(ExportTask.ExportStatus.COMPLETED);
+        task.setFileName(fileName);
+        task.setMinioObjectName(objectName);
+        task.setDownloadUrl(downloadUrl);
+        task.setCompletedAt(LocalDateTime.now());
+        exportTaskRepository.save(task);
+        exportMetrics.endPhase(historyUpdate, exportType, ExcelExportMetrics.PHASE_HISTORY);
+        exportMetrics.recordOutcome(exportType, ExcelExportMetrics.OUTCOME_COMPLETED);
+        progressTracker.publishStatus(task);
+    }
+
+    /**
+     * @return bytes written
+     */
+    private long writeExcelData(ExcelExportRequest request, OutputStream outputStream, ExportProgressTracker.Progress progress) {
+        String exportType = metricsExportType(request.getExportType());
         String templatePath = request.getTemplatePath();
         Map<String, Object> data = request.getData();
+        boolean streaming = false;
         
         if (templatePath == null && request.getExportType() != null) {
             ExportConfigRegistry.ExportConfig config = exportConfigRegistry.getExportConfig(request.getExportType());
             if (config != null) {
                 templatePath = config.getTemplatePath();
+                streaming = config.isStreaming();
                 if (data == null) {
+                    progress.setPhase(ExcelExportMetrics.PHASE_QUERY);
+                    Timer.Sample query = exportMetrics.startPhase();
                     data = exportConfigRegistry.generateExportData(request.getExportType(), request.getParameters());
+                    exportMetrics.endPhase(query, exportType, ExcelExportMetrics.PHASE_QUERY);
                 }
             }
         }
@@ -182,7 +537,79 @@ public class GenericExcelExportService {
             throw new IllegalArgumentException("No data provided for export");
         }
         
-        return excelWriter.writeFromTemplateToByte(templatePath, data);
+        long rows = countRows(data);
+        progress.setTotalRows(rows);
+        progress.setPhase(ExcelExportMetrics.PHASE_RENDER);
+        Map<String, Object> trackedData = trackRows(data, progress);
+        
+        PhaseTimingOutputStream timedOutput = new PhaseTimingOutputStream(outputStream, progress::bytesWritten);
+        long renderStart = System.nanoTime();
+        if (streaming) {
+            excelWriter.writeFromTemplateStreaming(timedOutput, templatePath, trackedData);
+        } else {
+            excelWriter.writeFromTemplate(timedOutput, templatePath, trackedData);
+        }
+        long end = System.nanoTime();
+        long serializeStart = timedOutput.getFirstWriteNanos() != 0 ? timedOutput.getFirstWriteNanos() : end;
+        
+        exportMetrics.recordPhase(exportType, ExcelExportMetrics.PHASE_RENDER, serializeStart - renderStart);
+        exportMetrics.recordPhase(exportType, ExcelExportMetrics.PHASE_SERIALIZE, end - serializeStart);
+        exportMetrics.recordRows(exportType, rows);
+        exportMetrics.recordBytes(exportType, timedOutput.getCount());
+        return timedOutput.getCount();
+    }
+
+    private long countRows(Map<String, Object> data) {
+        long rows = 0;
+        for (Object value : data.values()) {
+            if (value instanceof Collection) {
+                rows += ((Collection<?>) value).size();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Wraps each collection so the template engine counts rows as it iterates them. Lists stay lists.
+     */
+    private Map<String, Object> trackRows(Map<String, Object> data, ExportProgressTracker.Progress progress) {
+        Map<String, Object> tracked = new HashMap<>(data);
+        tracked.replaceAll((key, value) -> {
+            if (value instanceof List) {
+                return new RowCountingList<Object>((List<?>) value, progress::rowRendered);
+            }
+            if (value instanceof Collection) {
+                return new RowCountingCollection<Object>((Collection<?>) value, progress::rowRendered);
+            }
+            return value;
+        });
+        return tracked;
+    }
+
+    /**
+     * Custom exports carry free-text types, so only configured types get their own tag value.
+     */
+    private String metricsExportType(String exportType) {
+        return exportType != null && exportConfigRegistry.getExportConfig(exportType) != null ? exportType : CUSTOM_EXPORT_TYPE;
+    }
+
+    private OptionalLong predictRenderMillis(ExportTask task) {
+        if (!predictiveRoutingEnabled || task.getRecordCount() == null) {
+            return OptionalLong.empty();
+        }
+        return throughputTracker.predictRenderMillis(task.getExportType(), task.getRecordCount());
+    }
+
+    private void recordRenderStats(String taskId, long renderMillis, long fileSize) {
+        Timer.Sample historyUpdate = exportMetrics.startPhase();
+        ExportTask task = exportTaskRepository.findByTaskId(taskId).orElseThrow();
+        task.setRenderMillis(renderMillis);
+        task.setFileSize(fileSize);
+        exportTaskRepository.save(task);
+        exportMetrics.endPhase(historyUpdate, metricsExportType(task.getExportType()), ExcelExportMetrics.PHASE_HISTORY);
+        if (task.getRecordCount() != null) {
+            throughputTracker.record(task.getExportType(), task.getRecordCount(), renderMillis, fileSize);
+        }
     }
 
     private String determineFileName(ExcelExportRequest request) {
@@ -208,7 +635,10 @@ public class GenericExcelExportService {
     }
 
     private void updateTaskStatus(String taskId, ExportTask.ExportStatus status, String errorMessage) {
+        Timer.Sample historyUpdate = exportMetrics.startPhase();
         ExportTask task = exportTaskRepository.findByTaskId(taskId).orElseThrow();
+        // a failure can be reported by both the worker and the timeout handler; count it once
+        boolean statusChanged = task.getStatus() != status;
         task.setStatus(status);
         if (errorMessage != null) {
             task.setErrorMessage(errorMessage);
@@ -217,18 +647,60 @@ public class GenericExcelExportService {
             task.setCompletedAt(LocalDateTime.now());
         }
         exportTaskRepository.save(task);
+        
+        String exportType = metricsExportType(task.getExportType());
+        exportMetrics.endPhase(historyUpdate, exportType, ExcelExportMetrics.PHASE_HISTORY);
+        if (statusChanged) {
+            progressTracker.publishStatus(task);
+        }
+        if (statusChanged && status == ExportTask.ExportStatus.COMPLETED) {
+            exportMetrics.recordOutcome(exportType, ExcelExportMetrics.OUTCOME_COMPLETED);
+        } else if (statusChanged && status == ExportTask.ExportStatus.FAILED) {
+            exportMetrics.recordOutcome(exportType, ExcelExportMetrics.OUTCOME_FAILED);
+        }
     }
 
     private void updateTaskFileName(String taskId, String fileName) {
+        Timer.Sample historyUpdate = exportMetrics.startPhase();
         ExportTask task = exportTaskRepository.findByTaskId(taskId).orElseThrow();
         task.setFileName(fileName);
         exportTaskRepository.save(task);
+        exportMetrics.endPhase(historyUpdate, metricsExportType(task.getExportType()), ExcelExportMetrics.PHASE_HISTORY);
     }
 
     public ExportTask getTaskStatus(String taskId) {
         return exportTaskRepository.findByTaskId(taskId).orElse(null);
     }
 
+    private static class RenderedExport {
+        private final String fileName;
+        private final RenderBuffer content;
+
+        RenderedExport(String fileName, RenderBuffer content) {
+            this.fileName = fileName;
+            this.content = content;
+        }
+    }
+
+    public static class StreamingExport {
+        private final String taskId;
+        private final String fileName;
+        private final ExcelExportRequest request;
+        private final boolean persist;
+
+        StreamingExport(String taskId, String fileName, ExcelExportRequest request, boolean persist) {
+            this.taskId = taskId;
+            this.fileName = fileName;
+            this.request = request;
+            this.persist = persist;
+        }
+
+        public String getTaskId() { return taskId; }
+        public String getFileName() { return fileName; }
+        public ExcelExportRequest getRequest() { return request; }
+        public boolean isPersist() { return persist; }
+    }
+
     public static class ExportResult {
         private final String taskId;
         private final boolean immediate;
@@ -1,19 +1,34 @@
 package com.example.excelexport.service;
 
+import io.micrometer.core.instrument.Timer;
 import io.minio.*;
 import io.minio.errors.*;
 import io.minio.http.Method;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class MinIOService {
@@ -21,12 +36,31 @@ public class MinIOService {
     @Autowired
     private MinioClient minioClient;
 
+    @Autowired
+    private ExcelExportMetrics exportMetrics;
+
+    @Autowired
+    private PresignedUrlCache presignedUrlCache;
+
     @Value("${minio.bucket-name:excel-exports}")
     private String bucketName;
 
     @Value("${minio.expiry:604800}")
     private int urlExpiry;
 
+    @Value("${minio.part-size:5242880}")
+    private long partSize;
+
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
+    private final AtomicInteger uploadThreadNumber = new AtomicInteger(1);
+
+    private final ExecutorService uploadExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "minio-upload-" + uploadThreadNumber.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public void ensureBucketExists() {
         try {
             boolean exists = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
@@ -38,12 +72,13 @@ public class MinIOService {
         }
     }
 
-    public String uploadFile(byte[] fileData, String fileName, String contentType) {
+    public String uploadFile(String exportType, byte[] fileData, String fileName, String contentType) {
         try {
             ensureBucketExists();
             
             String objectName = generateObjectName(fileName);
             
+            Timer.Sample upload = exportMetrics.startPhase();
             minioClient.putObject(
                 PutObjectArgs.builder()
                     .bucket(bucketName)
@@ -52,21 +87,81 @@ public class MinIOService {
                     .contentType(contentType)
                     .build()
             );
+            exportMetrics.endPhase(upload, exportType, ExcelExportMetrics.PHASE_UPLOAD);
+            
+            return objectName;
+        } catch (Exception e) {
+            throw new RuntimeException("Error uploading file to MinIO", e);
+        }
+    }
+
+    /**
+     * Streams whatever {@code writer} produces into a multipart upload, buffering one part at a time.
+     * If the writer fails the upload is aborted instead of committing a truncated object. The upload
+     * overlaps the writer, so only the wait after the writer finishes is recorded as upload time.
+     */
+    public String uploadFile(String exportType, String fileName, String contentType, ExportContentWriter writer) {
+        try {
+            ensureBucketExists();
+            
+            String objectName = generateObjectName(fileName);
+            PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+            OutputStream outputStream = new BufferedOutputStream(new PipedOutputStream(inputStream), PIPE_BUFFER_SIZE);
+            
+            Future<?> upload = uploadExecutor.submit(() -> {
+                try (InputStream in = inputStream) {
+                    minioClient.putObject(
+                        PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectName)
+                            .stream(in, -1, partSize)
+                            .contentType(contentType)
+                            .build()
+                    );
+                }
+                return null;
+            });
+            
+            try {
+                writer.write(new UncloseableOutputStream(outputStream));
+                outputStream.close();
+            } catch (Exception e) {
+                if (!upload.cancel(true)) {
+                    upload.get();
+                }
+                inputStream.close();
+                throw e;
+            }
+            Timer.Sample uploadTail = exportMetrics.startPhase();
+            upload.get();
+            exportMetrics.endPhase(uploadTail, exportType, ExcelExportMetrics.PHASE_UPLOAD);
             
             return objectName;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error uploading file to MinIO", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while uploading file to MinIO", e);
         } catch (Exception e) {
             throw new RuntimeException("Error uploading file to MinIO", e);
         }
     }
 
+    /**
+     * Served from {@link PresignedUrlCache}, so the URL may have been signed earlier.
+     */
     public String getDownloadUrl(String objectName) {
+        return presignedUrlCache.get(objectName, urlExpiry, expiry -> signDownloadUrl(objectName, expiry));
+    }
+
+    private String signDownloadUrl(String objectName, int expiry) {
         try {
             return minioClient.getPresignedObjectUrl(
                 GetPresignedObjectUrlArgs.builder()
                     .method(Method.GET)
                     .bucket(bucketName)
                     .object(objectName)
-                    .expiry(urlExpiry)
+                    .expiry(expiry)
                     .build()
             );
         } catch (Exception e) {
@@ -87,6 +182,36 @@ public class MinIOService {
         }
     }
 
+    /**
+     * Opens the object, or one byte range of it, with a single GET whose headers carry
+     * Content-Length, Content-Range and ETag. Returns null if the object does not exist.
+     *
+     * @throws RangeNotSatisfiableException when the range cannot be satisfied
+     */
+    public GetObjectResponse openFile(String objectName, HttpRange range) {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName);
+        if (range != null) {
+            // passed through as-is so MinIO resolves suffix ranges against the object size
+            args.extraHeaders(Map.of("Range", HttpRange.toString(List.of(range))));
+        }
+        try {
+            return minioClient.getObject(args.build());
+        } catch (ErrorResponseException e) {
+            String code = e.errorResponse().code();
+            if ("NoSuchKey".equals(code)) {
+                return null;
+            }
+            if ("InvalidRange".equals(code)) {
+                throw new RangeNotSatisfiableException("Requested range not satisfiable: " + range, e);
+            }
+            throw new RuntimeException("Error downloading file from MinIO", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Error downloading file from MinIO", e);
+        }
+    }
+
     public void deleteFile(String objectName) {
         try {
             minioClient.removeObject(
@@ -95,6 +220,7 @@ public class MinIOService {
                     .object(objectName)
                     .build()
             );
+            presignedUrlCache.invalidate(objectName);
         } catch (Exception e) {
             throw new RuntimeException("Error deleting file from MinIO", e);
         }
@@ -104,4 +230,29 @@ public class MinIOService {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
         return "exports/" + timestamp + "_" + fileName;
     }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    /**
+     * Writers may close the stream they are given; only a successful return ends the upload.
+     */
+    private static class UncloseableOutputStream extends FilterOutputStream {
+
+        UncloseableOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package com.example.excelexport.service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.LongConsumer;
+
+/**
+ * Remembers when the first byte was written. jxls renders the whole workbook before writing any of
+ * it, so this separates render time from serialization time without hooking into the engine.
+ */
+class PhaseTimingOutputStream extends FilterOutputStream {
+
+    private final LongConsumer writeListener;
+    private long firstWriteNanos;
+    private long count;
+
+    PhaseTimingOutputStream(OutputStream out) {
+        this(out, written -> { });
+    }
+
+    /**
+     * @param writeListener told the byte count of every write, for live progress
+     */
+    PhaseTimingOutputStream(OutputStream out, LongConsumer writeListener) {
+        super(out);
+        this.writeListener = writeListener;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        markFirstWrite();
+        out.write(b);
+        count++;
+        writeListener.accept(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        markFirstWrite();
+        out.write(b, off, len);
+        count += len;
+        writeListener.accept(len);
+    }
+
+    /**
+     * {@link System#nanoTime()} of the first write, or 0 if nothing was written.
+     */
+    long getFirstWriteNanos() {
+        return firstWriteNanos;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    private void markFirstWrite() {
+        if (firstWriteNanos == 0) {
+            firstWriteNanos = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.excelexport.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded LRU of presigned GET URLs keyed by object and expiry bucket (the expiry rounded up to whole
+ * minutes). A URL is reused until less than {@code min-remaining-fraction} of its lifetime is left, so
+ * status polling does not re-sign on every request.
+ */
+@Component
+public class PresignedUrlCache {
+
+    private static final int EXPIRY_BUCKET_SECONDS = 60;
+    private static final int MAX_EXPIRY_SECONDS = 7 * 24 * 60 * 60;
+
+    private Map<String, CachedUrl> urls;
+
+    @Autowired
+    private ExcelExportMetrics exportMetrics;
+
+    @Value("${minio.presigned-url-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${minio.presigned-url-cache.min-remaining-fraction:0.5}")
+    private double minRemainingFraction;
+
+    private static class CachedUrl {
+        private final String url;
+        private final long expiresAt;
+
+        CachedUrl(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        urls = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * @param signer signs a URL for the bucketed expiry it is given, in seconds
+     */
+    public String get(String objectName, int expirySeconds, IntFunction<String> signer) {
+        int expiry = expiryBucket(expirySeconds);
+        String key = objectName + "|" + expiry;
+        long now = System.currentTimeMillis();
+
+        CachedUrl cached = urls.get(key);
+        if (cached != null && cached.expiresAt - now >= expiry * 1000L * minRemainingFraction) {
+            exportMetrics.recordPresignedUrlLookup(true);
+            return cached.url;
+        }
+
+        exportMetrics.recordPresignedUrlLookup(false);
+        String url = signer.apply(expiry);
+        urls.put(key, new CachedUrl(url, now + expiry * 1000L));
+        return url;
+    }
+
+    public void invalidate(String objectName) {
+        String prefix = objectName + "|";
+        synchronized (urls) {
+            urls.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    private static int expiryBucket(int expirySeconds) {
+        int rounded = (expirySeconds + EXPIRY_BUCKET_SECONDS - 1) / EXPIRY_BUCKET_SECONDS * EXPIRY_BUCKET_SECONDS;
+        return Math.min(Math.max(rounded, EXPIRY_BUCKET_SECONDS), MAX_EXPIRY_SECONDS);
+    }
+}
@@ -0,0 +1,365 @@
+package com.example.excelexport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background export executor with two priority classes. Jobs are classed by their estimated row
+ * count; workers take INTERACTIVE jobs first but give BULK one turn after every
+ * {@code interactiveWeight} interactive jobs so it cannot starve. Inside a class, clients share the
+ * workers by deficit round robin: each turn a client earns {@code quantumRows} and may run jobs
+ * whose row estimate fits, so one client's million-row exports cannot crowd out everyone else.
+ */
+public class PriorityExportScheduler implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriorityExportScheduler.class);
+
+    private static final String ANONYMOUS_CLIENT = "anonymous";
+
+    public enum Priority {
+        INTERACTIVE, BULK
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition jobAvailable = lock.newCondition();
+    private final Map<Priority, ClassQueue> queues = new EnumMap<>(Priority.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private final int workerThreads;
+    private final long interactiveMaxRows;
+    private final long quantumRows;
+    private final int interactiveWeight;
+    private final long awaitTerminationSeconds;
+
+    private int interactiveStreak;
+    private boolean shutdown;
+
+    public PriorityExportScheduler(int workerThreads, int interactiveQueueCapacity, int bulkQueueCapacity,
+                                   long interactiveMaxRows, long quantumRows, int interactiveWeight,
+                                   long awaitTerminationSeconds, String threadNamePrefix) {
+        if (workerThreads <= 0 || interactiveQueueCapacity <= 0 || bulkQueueCapacity <= 0) {
+            throw new IllegalArgumentException("Worker threads and queue capacities must be positive");
+        }
+        // a client only ever earns deficit in quanta, so a non-positive quantum would spin under the lock
+        if (quantumRows <= 0) {
+            throw new IllegalArgumentException("quantumRows must be positive: " + quantumRows);
+        }
+        if (interactiveWeight <= 0) {
+            throw new IllegalArgumentException("interactiveWeight must be positive: " + interactiveWeight);
+        }
+        if (interactiveMaxRows < 0 || awaitTerminationSeconds < 0) {
+            throw new IllegalArgumentException("interactiveMaxRows and awaitTerminationSeconds must not be negative");
+        }
+        this.workerThreads = workerThreads;
+        this.interactiveMaxRows = interactiveMaxRows;
+        this.quantumRows = quantumRows;
+        this.interactiveWeight = interactiveWeight;
+        this.awaitTerminationSeconds = awaitTerminationSeconds;
+        queues.put(Priority.INTERACTIVE, new ClassQueue(interactiveQueueCapacity));
+        queues.put(Priority.BULK, new ClassQueue(bulkQueueCapacity));
+
+        for (int i = 1; i <= workerThreads; i++) {
+            Thread worker = new Thread(this::runWorker, threadNamePrefix + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Plain {@link Executor} submissions have no cost estimate and are treated as anonymous bulk work.
+     */
+    @Override
+    public void execute(Runnable task) {
+        submit(task, Priority.BULK, null, 0);
+    }
+
+    public Priority classify(long estimatedRows) {
+        return estimatedRows > 0 && estimatedRows <= interactiveMaxRows ? Priority.INTERACTIVE : Priority.BULK;
+    }
+
+    public void submit(Runnable task, String clientId, long estimatedRows) {
+        submit(task, classify(estimatedRows), clientId, estimatedRows, null);
+    }
+
+    /**
+     * @param onDropped run instead of {@code task} if the scheduler shuts down before the job starts
+     */
+    public void submit(Runnable task, String clientId, long estimatedRows, Runnable onDropped) {
+        submit(task, classify(estimatedRows), clientId, estimatedRows, onDropped);
+    }
+
+    public void submit(Runnable task, Priority priority, String clientId, long estimatedRows) {
+        submit(task, priority, clientId, estimatedRows, null);
+    }
+
+    /**
+     * @throws TaskRejectedException when the class's queue is full or the scheduler is shut down
+     */
+    public void submit(Runnable task, Priority priority, String clientId, long estimatedRows, Runnable onDropped) {
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new TaskRejectedException("Export scheduler has been shut down");
+            }
+            ClassQueue queue = queues.get(priority);
+            if (queue.size >= queue.capacity) {
+                queue.rejectedCount++;
+                throw new TaskRejectedException(priority + " export queue is full (" + queue.capacity + ")");
+            }
+            long cost = estimatedRows > 0 ? estimatedRows : quantumRows;
+            queue.add(new Job(task, clientId != null ? clientId : ANONYMOUS_CLIENT, cost, onDropped));
+            jobAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("threadPoolType", "PriorityExportScheduler");
+        status.put("workerThreads", workerThreads);
+        status.put("activeCount", activeCount.get());
+        status.put("interactiveMaxRows", interactiveMaxRows);
+        status.put("quantumRows", quantumRows);
+
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Map<String, Object> classes = new HashMap<>();
+            queues.forEach((priority, queue) -> classes.put(priority.name(), queue.describe(now)));
+            status.put("classes", classes);
+        } finally {
+            lock.unlock();
+        }
+        return status;
+    }
+
+    /**
+     * Stops accepting jobs and, like the render executor, lets the workers finish the queued ones for up
+     * to {@code awaitTerminationSeconds}. Jobs still queued after that are dropped, running their
+     * {@code onDropped} callback, and running ones are interrupted.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            jobAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(awaitTerminationSeconds);
+        try {
+            for (Thread worker : workers) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<Job> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            for (ClassQueue queue : queues.values()) {
+                queue.drainTo(dropped);
+            }
+        } finally {
+            lock.unlock();
+        }
+        long running = workers.stream().filter(Thread::isAlive).count();
+        workers.forEach(Thread::interrupt);
+        if (!dropped.isEmpty() || running > 0) {
+            logger.warn("⚠️ Export scheduler stopped after {}s - {} queued exports dropped, {} running exports interrupted",
+                       awaitTerminationSeconds, dropped.size(), running);
+        }
+
+        for (Job job : dropped) {
+            if (job.onDropped == null) {
+                continue;
+            }
+            try {
+                job.onDropped.run();
+            } catch (RuntimeException e) {
+                logger.error("💥 Failed to report dropped export - Client: {}, Error: {}", job.clientId, e.getMessage());
+            }
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            Job job;
+            lock.lock();
+            try {
+                while (!shutdown && isEmpty()) {
+                    jobAvailable.await();
+                }
+                if (isEmpty()) {
+                    return;
+                }
+                job = nextJob();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            activeCount.incrementAndGet();
+            try {
+                job.task.run();
+            } catch (Throwable t) {
+                logger.error("💥 Background export job failed - Client: {}, Error: {}", job.clientId, t.getMessage(), t);
+            } finally {
+                activeCount.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        return queues.get(Priority.INTERACTIVE).size == 0 && queues.get(Priority.BULK).size == 0;
+    }
+
+    private Job nextJob() {
+        ClassQueue interactive = queues.get(Priority.INTERACTIVE);
+        ClassQueue bulk = queues.get(Priority.BULK);
+
+        boolean bulkTurn = bulk.size > 0 && (interactive.size == 0 || interactiveStreak >= interactiveWeight);
+        if (bulkTurn) {
+            interactiveStreak = 0;
+            return bulk.poll(quantumRows);
+        }
+        interactiveStreak++;
+        return interactive.poll(quantumRows);
+    }
+
+    private static class Job {
+        private final Runnable task;
+        private final String clientId;
+        private final long cost;
+        private final Runnable onDropped;
+        private final long enqueuedAt = System.currentTimeMillis();
+
+        Job(Runnable task, String clientId, long cost, Runnable onDropped) {
+            this.task = task;
+            this.clientId = clientId;
+            this.cost = cost;
+            this.onDropped = onDropped;
+        }
+    }
+
+    private static class ClientQueue {
+        private final String clientId;
+        private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+        private long deficit;
+        private boolean inTurn;
+
+        ClientQueue(String clientId) {
+            this.clientId = clientId;
+        }
+    }
+
+    /**
+     * One priority class. Not thread-safe; guarded by the scheduler lock.
+     */
+    private static class ClassQueue {
+        private final int capacity;
+        private final Map<String, ClientQueue> clients = new HashMap<>();
+        private final ArrayDeque<ClientQueue> activeClients = new ArrayDeque<>();
+        private int size;
+        private long rejectedCount;
+        private long dispatchedCount;
+        private long totalWaitMillis;
+        private long maxWaitMillis;
+
+        ClassQueue(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void add(Job job) {
+            ClientQueue client = clients.computeIfAbsent(job.clientId, ClientQueue::new);
+            if (client.jobs.isEmpty()) {
+                activeClients.addLast(client);
+            }
+            client.jobs.addLast(job);
+            size++;
+        }
+
+        Job poll(long quantumRows) {
+            while (true) {
+                ClientQueue client = activeClients.peekFirst();
+                if (!client.inTurn) {
+                    client.deficit += quantumRows;
+                    client.inTurn = true;
+                }
+
+                Job head = client.jobs.peekFirst();
+                if (head.cost <= client.deficit) {
+                    client.deficit -= head.cost;
+                    client.jobs.pollFirst();
+                    size--;
+                    if (client.jobs.isEmpty()) {
+                        activeClients.pollFirst();
+                        clients.remove(client.clientId);
+                    }
+                    recordWait(System.currentTimeMillis() - head.enqueuedAt);
+                    return head;
+                }
+
+                // turn over: the client keeps its deficit and waits for its next turn
+                client.inTurn = false;
+                activeClients.addLast(activeClients.pollFirst());
+            }
+        }
+
+        void drainTo(List<Job> dropped) {
+            for (ClientQueue client : activeClients) {
+                dropped.addAll(client.jobs);
+            }
+            clients.clear();
+            activeClients.clear();
+            size = 0;
+        }
+
+        private void recordWait(long waitMillis) {
+            dispatchedCount++;
+            totalWaitMillis += waitMillis;
+            maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+        }
+
+        Map<String, Object> describe(long now) {
+            long oldestEnqueuedAt = now;
+            for (ClientQueue client : activeClients) {
+                oldestEnqueuedAt = Math.min(oldestEnqueuedAt, client.jobs.peekFirst().enqueuedAt);
+            }
+
+            Map<String, Object> status = new HashMap<>();
+            status.put("queueSize", size);
+            status.put("queueCapacity", capacity);
+            status.put("queuedClients", activeClients.size());
+            status.put("dispatchedCount", dispatchedCount);
+            status.put("rejectedCount", rejectedCount);
+            status.put("averageWaitMillis", dispatchedCount > 0 ? totalWaitMillis / dispatchedCount : 0);
+            status.put("maxWaitMillis", maxWaitMillis);
+            status.put("oldestWaitMillis", now - oldestEnqueuedAt);
+            return status;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.excelexport.service;
+
+/**
+ * A requested byte range lies outside the object; answered with 416.
+ */
+public class RangeNotSatisfiableException extends RuntimeException {
+
+    public RangeNotSatisfiableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.excelexport.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Holds a rendered workbook until it is known whether it goes back in the HTTP response or to MinIO.
+ * Up to {@code memoryThreshold} bytes stay on heap; past that the content moves to a temp file, so a
+ * large export that ends up handed off is uploaded from disk instead of from a byte[].
+ */
+class RenderBuffer extends OutputStream {
+
+    private final int memoryThreshold;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path file;
+    private OutputStream fileOut;
+    private long size;
+
+    RenderBuffer(int memoryThreshold) {
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (file == null && memory.size() + len > memoryThreshold) {
+            spill();
+        }
+        if (fileOut != null) {
+            fileOut.write(b, off, len);
+        } else if (file == null) {
+            memory.write(b, off, len);
+        } else {
+            throw new IOException("Render buffer already closed");
+        }
+        size += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOut != null) {
+            fileOut.flush();
+        }
+    }
+
+    /**
+     * Ends writing; the content stays readable until {@link #discard()}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (fileOut != null) {
+            fileOut.close();
+            fileOut = null;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isInMemory() {
+        return file == null;
+    }
+
+    byte[] toByteArray() throws IOException {
+        close();
+        return file == null ? memory.toByteArray() : Files.readAllBytes(file);
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        close();
+        if (file == null) {
+            memory.writeTo(out);
+        } else {
+            Files.copy(file, out);
+        }
+    }
+
+    /**
+     * Releases the content, deleting the temp file if there is one. Safe to call more than once.
+     */
+    void discard() {
+        memory = new ByteArrayOutputStream(0);
+        try {
+            close();
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // only a temp file left behind
+        }
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("export-render", ".xlsx");
+        fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+        memory.writeTo(fileOut);
+        memory = null;
+    }
+}
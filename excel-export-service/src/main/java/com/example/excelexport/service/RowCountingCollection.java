@@ -0,0 +1,43 @@
+package com.example.excelexport.service;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Read-only view of a collection that reports every element handed out by its iterators, so row
+ * progress can be followed without hooking into the template engine.
+ */
+class RowCountingCollection<E> extends AbstractCollection<E> {
+
+    private final Collection<? extends E> delegate;
+    private final Runnable rowListener;
+
+    RowCountingCollection(Collection<? extends E> delegate, Runnable rowListener) {
+        this.delegate = delegate;
+        this.rowListener = rowListener;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<? extends E> iterator = delegate.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                E next = iterator.next();
+                rowListener.run();
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+}
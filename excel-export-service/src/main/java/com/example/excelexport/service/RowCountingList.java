@@ -0,0 +1,54 @@
+package com.example.excelexport.service;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link RowCountingCollection} for lists: templates and custom data may index into a list
+ * ({@code ${items[0].name}}), so the view stays a {@link List}. Every element handed out by
+ * {@link #get} or an iterator is reported.
+ */
+class RowCountingList<E> extends AbstractList<E> {
+
+    private final List<? extends E> delegate;
+    private final Runnable rowListener;
+
+    RowCountingList(List<? extends E> delegate, Runnable rowListener) {
+        this.delegate = delegate;
+        this.rowListener = rowListener;
+    }
+
+    @Override
+    public E get(int index) {
+        E element = delegate.get(index);
+        rowListener.run();
+        return element;
+    }
+
+    /**
+     * Walks the delegate's own iterator, so a linked list is not read by index.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<? extends E> iterator = delegate.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                E next = iterator.next();
+                rowListener.run();
+                return next;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+}
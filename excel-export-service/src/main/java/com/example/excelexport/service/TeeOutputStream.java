@@ -0,0 +1,78 @@
+package com.example.excelexport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes every byte to a primary stream and, for as long as it accepts them, a secondary one. A
+ * failing secondary (typically a client that went away) is dropped so the primary still gets the
+ * complete file; failures of the primary are thrown as usual.
+ */
+class TeeOutputStream extends OutputStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(TeeOutputStream.class);
+
+    private final OutputStream primary;
+    private OutputStream secondary;
+
+    TeeOutputStream(OutputStream primary, OutputStream secondary) {
+        this.primary = primary;
+        this.secondary = secondary;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        primary.write(b);
+        if (secondary != null) {
+            try {
+                secondary.write(b);
+            } catch (IOException e) {
+                detach(e);
+            }
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        primary.write(b, off, len);
+        if (secondary != null) {
+            try {
+                secondary.write(b, off, len);
+            } catch (IOException e) {
+                detach(e);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        primary.flush();
+        if (secondary != null) {
+            try {
+                secondary.flush();
+            } catch (IOException e) {
+                detach(e);
+            }
+        }
+    }
+
+    /**
+     * Neither stream is closed; their owners do that.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    boolean isSecondaryDetached() {
+        return secondary == null;
+    }
+
+    private void detach(IOException e) {
+        logger.warn("⚠️ Secondary stream failed, continuing with primary only: {}", e.getMessage());
+        secondary = null;
+    }
+}
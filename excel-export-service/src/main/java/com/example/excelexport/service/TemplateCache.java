@@ -0,0 +1,106 @@
+package com.example.excelexport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps the raw bytes of each classpath template so a request only wraps them in a stream instead of
+ * re-reading the resource. jxls builds its area model against the transformer's own workbook, so
+ * that part is still rebuilt per request.
+ */
+@Component
+public class TemplateCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TemplateCache.class);
+
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ExportConfigRegistry exportConfigRegistry;
+
+    /**
+     * When positive, a template older than this is re-read and replaced if its checksum changed.
+     */
+    @Value("${excel.template-cache.check-interval-seconds:0}")
+    private long checkIntervalSeconds;
+
+    private static class CachedTemplate {
+        private final byte[] content;
+        private final long checksum;
+        private volatile long checkedAt;
+
+        CachedTemplate(byte[] content, long checksum) {
+            this.content = content;
+            this.checksum = checksum;
+            this.checkedAt = System.currentTimeMillis();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String templatePath : exportConfigRegistry.getTemplatePaths()) {
+            try {
+                getTemplate(templatePath);
+            } catch (IOException e) {
+                logger.warn("⚠️ Could not preload template {}: {}", templatePath, e.getMessage());
+            }
+        }
+        logger.info("📄 Template cache warmed with {} template(s)", templates.size());
+    }
+
+    public InputStream openTemplate(String templatePath) throws IOException {
+        return new ByteArrayInputStream(getTemplate(templatePath).content);
+    }
+
+    private CachedTemplate getTemplate(String templatePath) throws IOException {
+        CachedTemplate template = templates.get(templatePath);
+        if (template == null) {
+            template = load(templatePath);
+            CachedTemplate existing = templates.putIfAbsent(templatePath, template);
+            return existing != null ? existing : template;
+        }
+        if (checkIntervalSeconds > 0
+                && System.currentTimeMillis() - template.checkedAt > checkIntervalSeconds * 1000) {
+            return revalidate(templatePath, template);
+        }
+        return template;
+    }
+
+    private CachedTemplate revalidate(String templatePath, CachedTemplate template) throws IOException {
+        template.checkedAt = System.currentTimeMillis();
+        CachedTemplate current = load(templatePath);
+        if (current.checksum == template.checksum) {
+            return template;
+        }
+        logger.info("🔄 Template changed, reloading: {}", templatePath);
+        templates.put(templatePath, current);
+        return current;
+    }
+
+    private CachedTemplate load(String templatePath) throws IOException {
+        Resource resource = new ClassPathResource(templatePath);
+        if (!resource.exists()) {
+            throw new IOException("Template file not found: " + templatePath);
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            byte[] content = inputStream.readAllBytes();
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            return new CachedTemplate(content, crc.getValue());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.excelexport.service;
 
+import com.example.excelexport.config.AsyncConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -17,11 +18,25 @@ public class ThreadMonitoringService {
     @Qualifier("exportTaskExecutor")
     private Executor exportTaskExecutor;
 
+    @Autowired
+    @Qualifier("exportRenderExecutor")
+    private Executor exportRenderExecutor;
+
     public Map<String, Object> getThreadPoolStatus() {
+        return describeExecutor(exportTaskExecutor);
+    }
+
+    public Map<String, Object> getRenderPoolStatus() {
+        return describeExecutor(exportRenderExecutor);
+    }
+
+    private Map<String, Object> describeExecutor(Executor taskExecutor) {
         Map<String, Object> status = new HashMap<>();
         
-        if (exportTaskExecutor instanceof ThreadPoolTaskExecutor) {
-            ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) exportTaskExecutor;
+        if (taskExecutor instanceof PriorityExportScheduler) {
+            status.putAll(((PriorityExportScheduler) taskExecutor).getStatus());
+        } else if (taskExecutor instanceof ThreadPoolTaskExecutor) {
+            ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) taskExecutor;
             ThreadPoolExecutor threadPool = executor.getThreadPoolExecutor();
             
             status.put("threadPoolType", "ThreadPoolTaskExecutor");
@@ -35,8 +50,11 @@ public class ThreadMonitoringService {
             status.put("taskCount", threadPool.getTaskCount());
             status.put("largestPoolSize", threadPool.getLargestPoolSize());
             status.put("threadNamePrefix", executor.getThreadNamePrefix());
+            if (threadPool.getRejectedExecutionHandler() instanceof AsyncConfig.CountingAbortPolicy) {
+                status.put("rejectedCount", ((AsyncConfig.CountingAbortPolicy) threadPool.getRejectedExecutionHandler()).getRejectedCount());
+            }
         } else {
-            status.put("threadPoolType", exportTaskExecutor.getClass().getSimpleName());
+            status.put("threadPoolType", taskExecutor.getClass().getSimpleName());
             status.put("message", "Detailed monitoring not available for this executor type");
         }
         
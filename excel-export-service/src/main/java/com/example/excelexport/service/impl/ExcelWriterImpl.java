@@ -1,33 +1,87 @@
 package com.example.excelexport.service.impl;
 
 import com.example.excelexport.service.ExcelWriter;
+import com.example.excelexport.service.TemplateCache;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.jxls.area.Area;
+import org.jxls.builder.xls.XlsCommentAreaBuilder;
+import org.jxls.common.CellRef;
 import org.jxls.common.Context;
+import org.jxls.transform.poi.PoiTransformer;
 import org.jxls.util.JxlsHelper;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class ExcelWriterImpl implements ExcelWriter {
     
+    private static final String STREAMING_SHEET_PREFIX = "jxls_out_";
+    
+    @Autowired
+    private TemplateCache templateCache;
+    
+    @Value("${excel.streaming.row-window-size:100}")
+    private int rowWindowSize;
+    
     @Override
     public void writeFromTemplate(OutputStream outStream, String templateName, Map<String, Object> data) {
         try {
-            InputStream inputStream = readResourceFile(templateName);
-            Context context = new Context();
-            for (Map.Entry<String, Object> element : data.entrySet()) {
-                context.putVar(element.getKey(), element.getValue());
+            InputStream inputStream = templateCache.openTemplate(templateName);
+            JxlsHelper.getInstance().processTemplate(inputStream, outStream, createContext(data));
+        } catch (IOException e) {
+            throw new RuntimeException("Error processing Excel template: " + templateName, e);
+        } finally {
+            closeAndFlushOutput(outStream);
+        }
+    }
+    
+    /**
+     * SXSSF can only append rows below the ones already in the template, so each area is rendered
+     * into a fresh sheet that then replaces its template sheet.
+     */
+    @Override
+    public void writeFromTemplateStreaming(OutputStream outStream, String templateName, Map<String, Object> data) {
+        PoiTransformer transformer = null;
+        try (InputStream inputStream = templateCache.openTemplate(templateName)) {
+            Workbook template = WorkbookFactory.create(inputStream);
+            transformer = PoiTransformer.createSxssfTransformer(template, rowWindowSize, true);
+            transformer.setOutputStream(outStream);
+            
+            Context context = createContext(data);
+            List<Area> areas = new XlsCommentAreaBuilder(transformer).build();
+            for (Area area : areas) {
+                CellRef start = area.getStartCellRef();
+                area.applyAt(new CellRef(STREAMING_SHEET_PREFIX + start.getSheetName(), start.getRow(), start.getCol()), context);
             }
-            JxlsHelper.getInstance().processTemplate(inputStream, outStream, context);
+            
+            Workbook workbook = transformer.getWorkbook();
+            Set<String> templateSheets = new LinkedHashSet<>();
+            for (Area area : areas) {
+                templateSheets.add(area.getStartCellRef().getSheetName());
+            }
+            for (String sheetName : templateSheets) {
+                transformer.deleteSheet(sheetName);
+                workbook.setSheetName(workbook.getSheetIndex(STREAMING_SHEET_PREFIX + sheetName), sheetName);
+            }
+            transformer.write();
         } catch (IOException e) {
             throw new RuntimeException("Error processing Excel template: " + templateName, e);
         } finally {
+            if (transformer != null && transformer.getWorkbook() instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) transformer.getWorkbook()).dispose();
+            }
             closeAndFlushOutput(outStream);
         }
     }
@@ -39,12 +93,12 @@ public class ExcelWriterImpl implements ExcelWriter {
         return outputStream.toByteArray();
     }
 
-    private InputStream readResourceFile(String templateName) throws IOException {
-        Resource resource = new ClassPathResource(templateName);
-        if (!resource.exists()) {
-            throw new IOException("Template file not found: " + templateName);
+    private Context createContext(Map<String, Object> data) {
+        Context context = new Context();
+        for (Map.Entry<String, Object> element : data.entrySet()) {
+            context.putVar(element.getKey(), element.getValue());
         }
-        return resource.getInputStream();
+        return context;
     }
 
     private void closeAndFlushOutput(OutputStream outStream) {
@@ -0,0 +1,218 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.ExportTask;
+import com.example.excelexport.model.ExcelExportRequest;
+import com.example.excelexport.repository.ExportTaskRepository;
+import com.example.excelexport.service.GenericExcelExportService.ExportResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the timeout hand-off and request coalescing with a render that only finishes when the test
+ * releases it, a MinIO stub that records uploads and an in-memory task repository.
+ */
+class GenericExcelExportServiceTest {
+
+    private static final String EXPORT_TYPE = "people";
+    private static final byte[] WORKBOOK = "rendered workbook".getBytes();
+
+    private final Map<String, ExportTask> tasks = new ConcurrentHashMap<>();
+    private final List<byte[]> uploads = Collections.synchronizedList(new ArrayList<>());
+    private final BlockingExcelWriter excelWriter = new BlockingExcelWriter();
+    private final ExecutorService renderExecutor = Executors.newCachedThreadPool();
+    private final GenericExcelExportService service = new GenericExcelExportService();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ExportTaskRepository repository = mock(ExportTaskRepository.class);
+        when(repository.save(any(ExportTask.class))).thenAnswer(invocation -> {
+            ExportTask task = invocation.getArgument(0);
+            tasks.put(task.getTaskId(), task);
+            return task;
+        });
+        when(repository.findByTaskId(anyString())).thenAnswer(invocation -> Optional.ofNullable(tasks.get(invocation.<String>getArgument(0))));
+
+        MinIOService minioService = mock(MinIOService.class);
+        when(minioService.uploadFile(anyString(), anyString(), anyString(), any(ExportContentWriter.class))).thenAnswer(invocation -> {
+            ByteArrayOutputStream upload = new ByteArrayOutputStream();
+            invocation.<ExportContentWriter>getArgument(3).write(upload);
+            uploads.add(upload.toByteArray());
+            return "exports/" + invocation.getArgument(1);
+        });
+        when(minioService.getDownloadUrl(anyString())).thenAnswer(invocation -> "http://minio/" + invocation.getArgument(0));
+
+        ExportConfigRegistry exportConfigRegistry = new ExportConfigRegistry();
+        exportConfigRegistry.registerExportConfig(EXPORT_TYPE, new ExportConfigRegistry.ExportConfig(
+                "templates/people.xlsx", EXPORT_TYPE, parameters -> new HashMap<>(Map.of("people", List.of("a", "b")))));
+
+        ReflectionTestUtils.setField(service, "excelWriter", excelWriter);
+        ReflectionTestUtils.setField(service, "minioService", minioService);
+        ReflectionTestUtils.setField(service, "exportTaskRepository", repository);
+        ReflectionTestUtils.setField(service, "exportConfigRegistry", exportConfigRegistry);
+        ReflectionTestUtils.setField(service, "exportRenderExecutor", renderExecutor);
+        ReflectionTestUtils.setField(service, "exportMetrics", new ExcelExportMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "progressTracker", new ExportProgressTracker());
+        ReflectionTestUtils.setField(service, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(service, "renderBufferMemoryThreshold", 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        excelWriter.release.countDown();
+        renderExecutor.shutdownNow();
+    }
+
+    @Test
+    void timeoutHandsOffAndUploadsTheSameRenderOnce() throws Exception {
+        ExportResult result = service.exportWithTimeout(request(), 1).get(5, TimeUnit.SECONDS);
+
+        assertFalse(result.isImmediate());
+        assertEquals(ExportTask.ExportStatus.PROCESSING, tasks.get(result.getTaskId()).getStatus());
+        excelWriter.release.countDown();
+        awaitStatus(result.getTaskId(), ExportTask.ExportStatus.COMPLETED);
+
+        assertEquals(1, excelWriter.renders.get());
+        assertEquals(1, uploads.size());
+        assertArrayEquals(WORKBOOK, uploads.get(0));
+        assertNotNull(tasks.get(result.getTaskId()).getDownloadUrl());
+    }
+
+    @Test
+    void followerJoinsTheInFlightRenderAndGetsTheSameBytes() throws Exception {
+        CompletableFuture<ExportResult> leader = service.exportWithTimeout(request(), 10);
+        assertTrue(excelWriter.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ExportResult> follower = service.exportWithTimeout(request(), 10);
+        excelWriter.release.countDown();
+
+        ExportResult leaderResult = leader.get(5, TimeUnit.SECONDS);
+        ExportResult followerResult = follower.get(5, TimeUnit.SECONDS);
+        assertTrue(followerResult.isImmediate());
+        assertEquals(leaderResult.getTaskId(), followerResult.getTaskId());
+        assertArrayEquals(WORKBOOK, leaderResult.getData());
+        assertArrayEquals(leaderResult.getData(), followerResult.getData());
+        assertEquals(1, excelWriter.renders.get());
+        assertEquals(1, tasks.size());
+        assertTrue(uploads.isEmpty());
+    }
+
+    @Test
+    void followerWhoseTimeoutExpiresFirstGetsTheSharedTaskId() throws Exception {
+        CompletableFuture<ExportResult> leader = service.exportWithTimeout(request(), 10);
+        assertTrue(excelWriter.started.await(5, TimeUnit.SECONDS));
+        String taskId = tasks.keySet().iterator().next();
+
+        ExportResult followerResult = service.exportWithTimeout(request(), 1).get(5, TimeUnit.SECONDS);
+        assertFalse(followerResult.isImmediate());
+        assertEquals(taskId, followerResult.getTaskId());
+        assertFalse(leader.isDone());
+
+        excelWriter.release.countDown();
+        ExportResult leaderResult = leader.get(5, TimeUnit.SECONDS);
+        assertTrue(leaderResult.isImmediate());
+        assertEquals(taskId, leaderResult.getTaskId());
+        assertEquals(1, excelWriter.renders.get());
+    }
+
+    @Test
+    void rejectionFailsTheFlightAndClearsIt() throws Exception {
+        List<CompletableFuture<ExportResult>> followers = new ArrayList<>();
+        // a follower joins while the leader is being submitted, then the render executor rejects it
+        ReflectionTestUtils.setField(service, "exportRenderExecutor", (Executor) runnable -> {
+            followers.add(service.exportWithTimeout(request(), 10));
+            throw new TaskRejectedException("render queue full");
+        });
+
+        assertThrows(TaskRejectedException.class, () -> service.exportWithTimeout(request(), 10));
+
+        ExecutionException followerFailure = assertThrows(ExecutionException.class,
+                () -> followers.get(0).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TaskRejectedException.class, followerFailure.getCause());
+        Map<?, ?> inFlightExports = (Map<?, ?>) ReflectionTestUtils.getField(service, "inFlightExports");
+        assertTrue(inFlightExports.isEmpty());
+        assertEquals(ExportTask.ExportStatus.FAILED, tasks.values().iterator().next().getStatus());
+
+        ReflectionTestUtils.setField(service, "exportRenderExecutor", renderExecutor);
+        excelWriter.release.countDown();
+        ExportResult retry = service.exportWithTimeout(request(), 10).get(5, TimeUnit.SECONDS);
+        assertTrue(retry.isImmediate());
+        assertEquals(1, excelWriter.renders.get());
+    }
+
+    private ExcelExportRequest request() {
+        ExcelExportRequest request = new ExcelExportRequest();
+        request.setExportType(EXPORT_TYPE);
+        request.setFileName("people.xlsx");
+        request.setParameters(Map.of("department", "IT"));
+        return request;
+    }
+
+    private void awaitStatus(String taskId, ExportTask.ExportStatus status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tasks.get(taskId).getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(status, tasks.get(taskId).getStatus());
+    }
+
+    /**
+     * Writes a fixed workbook once {@code release} is counted down.
+     */
+    private static class BlockingExcelWriter implements ExcelWriter {
+
+        private final AtomicInteger renders = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void writeFromTemplate(OutputStream outStream, String templateName, Map<String, Object> data) {
+            renders.incrementAndGet();
+            started.countDown();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+                outStream.write(WORKBOOK);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void writeFromTemplateStreaming(OutputStream outStream, String templateName, Map<String, Object> data) {
+            writeFromTemplate(outStream, templateName, data);
+        }
+
+        @Override
+        public byte[] writeFromTemplateToByte(String pathTemplate, Map<String, Object> data) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.service.PriorityExportScheduler.Priority;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityExportSchedulerTest {
+
+    private final List<String> dispatched = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void interleavesBulkAfterInteractiveWeight() throws InterruptedException {
+        PriorityExportScheduler scheduler = singleWorker(1000, 2, 4);
+        CountDownLatch release = occupyWorker(scheduler);
+
+        scheduler.submit(record("B1"), Priority.BULK, "client", 100);
+        scheduler.submit(record("B2"), Priority.BULK, "client", 100);
+        for (int i = 1; i <= 4; i++) {
+            scheduler.submit(record("I" + i), Priority.INTERACTIVE, "client", 100);
+        }
+        release.countDown();
+        scheduler.shutdown();
+
+        assertEquals(List.of("I1", "I2", "B1", "I3", "I4", "B2"), dispatched);
+    }
+
+    @Test
+    void roundRobinsClientsWithinAClass() throws InterruptedException {
+        PriorityExportScheduler scheduler = singleWorker(100, 4, 8);
+        CountDownLatch release = occupyWorker(scheduler);
+
+        for (int i = 1; i <= 3; i++) {
+            scheduler.submit(record("A" + i), Priority.BULK, "a", 100);
+        }
+        for (int i = 1; i <= 3; i++) {
+            scheduler.submit(record("B" + i), Priority.BULK, "b", 100);
+        }
+        release.countDown();
+        scheduler.shutdown();
+
+        assertEquals(List.of("A1", "B1", "A2", "B2", "A3", "B3"), dispatched);
+    }
+
+    @Test
+    void heavyJobWaitsUntilItsClientHasEarnedEnoughDeficit() throws InterruptedException {
+        PriorityExportScheduler scheduler = singleWorker(100, 4, 4);
+        CountDownLatch release = occupyWorker(scheduler);
+
+        scheduler.submit(record("heavy"), Priority.BULK, "a", 300);
+        for (int i = 1; i <= 3; i++) {
+            scheduler.submit(record("B" + i), Priority.BULK, "b", 100);
+        }
+        release.countDown();
+        scheduler.shutdown();
+
+        assertEquals(List.of("B1", "B2", "heavy", "B3"), dispatched);
+    }
+
+    @Test
+    void classifiesBySizeEstimate() {
+        PriorityExportScheduler scheduler = singleWorker(100, 4, 4);
+
+        assertEquals(Priority.INTERACTIVE, scheduler.classify(500));
+        assertEquals(Priority.BULK, scheduler.classify(501));
+        assertEquals(Priority.BULK, scheduler.classify(0));
+        scheduler.shutdown();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFullOrShutDown() throws InterruptedException {
+        PriorityExportScheduler scheduler = singleWorker(100, 4, 1);
+        CountDownLatch release = occupyWorker(scheduler);
+
+        scheduler.submit(record("queued"), Priority.BULK, "a", 100);
+        assertThrows(TaskRejectedException.class,
+                () -> scheduler.submit(record("overflow"), Priority.BULK, "a", 100));
+        release.countDown();
+        scheduler.shutdown();
+
+        assertEquals(List.of("queued"), dispatched);
+        assertThrows(TaskRejectedException.class,
+                () -> scheduler.submit(record("late"), Priority.INTERACTIVE, "a", 100));
+    }
+
+    @Test
+    void shutdownDropsJobsStillQueuedAfterTheGracePeriod() throws InterruptedException {
+        PriorityExportScheduler scheduler = new PriorityExportScheduler(1, 4, 4, 500, 100, 4, 0, "test-");
+        CountDownLatch release = occupyWorker(scheduler);
+
+        scheduler.submit(record("queued"), Priority.BULK, "a", 100, record("dropped"));
+        scheduler.shutdown();
+        release.countDown();
+        Thread.sleep(200);
+
+        assertEquals(List.of("dropped"), dispatched);
+    }
+
+    @Test
+    void rejectsSettingsThatWouldStallDispatch() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityExportScheduler(1, 4, 4, 500, 0, 4, 60, "test-"));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityExportScheduler(1, 4, 4, 500, 100, 0, 60, "test-"));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityExportScheduler(0, 4, 4, 500, 100, 4, 60, "test-"));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityExportScheduler(1, 0, 4, 500, 100, 4, 60, "test-"));
+    }
+
+    private PriorityExportScheduler singleWorker(long quantumRows, int interactiveWeight, int bulkQueueCapacity) {
+        return new PriorityExportScheduler(1, 4, bulkQueueCapacity, 500, quantumRows, interactiveWeight, 10, "test-");
+    }
+
+    /**
+     * Parks the only worker on a job so the ones submitted afterwards are all queued before dispatch starts.
+     */
+    private CountDownLatch occupyWorker(PriorityExportScheduler scheduler) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, Priority.BULK, "blocker", 1);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private Runnable record(String name) {
+        return () -> dispatched.add(name);
+    }
+}
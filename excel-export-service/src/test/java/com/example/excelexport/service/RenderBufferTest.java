@@ -0,0 +1,72 @@
+package com.example.excelexport.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderBufferTest {
+
+    @Test
+    void keepsSmallContentInMemory() throws IOException {
+        RenderBuffer buffer = new RenderBuffer(16);
+        buffer.write(bytes(10, 1));
+        buffer.close();
+
+        assertTrue(buffer.isInMemory());
+        assertEquals(10, buffer.size());
+        assertArrayEquals(bytes(10, 1), buffer.toByteArray());
+        buffer.discard();
+    }
+
+    @Test
+    void spillsToDiskPastThresholdWithoutLosingBytes() throws IOException {
+        RenderBuffer buffer = new RenderBuffer(16);
+        buffer.write(bytes(10, 1));
+        buffer.write(7);
+        buffer.write(bytes(20, 2));
+        buffer.close();
+
+        assertFalse(buffer.isInMemory());
+        assertEquals(31, buffer.size());
+
+        byte[] expected = new byte[31];
+        System.arraycopy(bytes(10, 1), 0, expected, 0, 10);
+        expected[10] = 7;
+        System.arraycopy(bytes(20, 2), 0, expected, 11, 20);
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        buffer.writeTo(copy);
+        assertArrayEquals(expected, copy.toByteArray());
+        assertArrayEquals(expected, buffer.toByteArray());
+        buffer.discard();
+    }
+
+    @Test
+    void rejectsWritesAfterSpilledBufferIsClosed() throws IOException {
+        RenderBuffer buffer = new RenderBuffer(4);
+        buffer.write(bytes(8, 1));
+        buffer.close();
+
+        assertThrows(IOException.class, () -> buffer.write(1));
+        buffer.discard();
+    }
+
+    @Test
+    void discardIsIdempotent() throws IOException {
+        RenderBuffer buffer = new RenderBuffer(4);
+        buffer.write(bytes(8, 1));
+        buffer.discard();
+        buffer.discard();
+
+        assertThrows(IOException.class, buffer::toByteArray);
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.excelexport.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowCountingListTest {
+
+    @Test
+    void keepsListSemanticsForIndexedAccess() {
+        AtomicInteger rows = new AtomicInteger();
+        List<Object> list = new RowCountingList<>(List.of("a", "b", "c"), rows::incrementAndGet);
+
+        assertEquals("b", list.get(1));
+        assertEquals(3, list.size());
+        assertEquals(List.of("a", "b", "c"), list);
+        assertEquals(1, list.indexOf("b"));
+        assertTrue(rows.get() > 0);
+    }
+
+    @Test
+    void countsEveryElementOfAnIteration() {
+        AtomicInteger rows = new AtomicInteger();
+        List<Object> list = new RowCountingList<>(new LinkedList<>(List.of(1, 2, 3, 4)), rows::incrementAndGet);
+
+        int seen = 0;
+        for (Object ignored : list) {
+            seen++;
+        }
+
+        assertEquals(4, seen);
+        assertEquals(4, rows.get());
+    }
+
+    @Test
+    void countsIndexedReads() {
+        AtomicInteger rows = new AtomicInteger();
+        List<Object> list = new RowCountingList<>(List.of("a", "b"), rows::incrementAndGet);
+
+        list.get(0);
+        list.get(1);
+
+        assertEquals(2, rows.get());
+    }
+
+    @Test
+    void isReadOnly() {
+        List<Object> list = new RowCountingList<>(List.of("a"), () -> { });
+
+        assertThrows(UnsupportedOperationException.class, () -> list.add("b"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.excelexport.service.impl;
+
+import com.example.excelexport.service.TemplateCache;
+import org.apache.poi.ss.usermodel.ClientAnchor;
+import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.Drawing;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExcelWriterImplTest {
+
+    private static final String TEMPLATE = "templates/test_template.xlsx";
+    private static final int ROWS = 250;
+
+    private final TemplateCache templateCache = mock(TemplateCache.class);
+    private final ExcelWriterImpl excelWriter = new ExcelWriterImpl();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(excelWriter, "templateCache", templateCache);
+        ReflectionTestUtils.setField(excelWriter, "rowWindowSize", 10);
+        byte[] template = markedUpTemplate();
+        when(templateCache.openTemplate(TEMPLATE)).thenAnswer(invocation -> new ByteArrayInputStream(template));
+    }
+
+    @Test
+    void streamingRendersEveryRowIntoTheTemplateSheet() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        excelWriter.writeFromTemplateStreaming(out, TEMPLATE, Map.of("title", "People", "people", people()));
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            Sheet sheet = workbook.getSheet("People");
+            assertNotNull(sheet);
+            assertEquals("People", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Name", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(ROWS + 1, sheet.getLastRowNum());
+            for (int i = 0; i < ROWS; i++) {
+                Row row = sheet.getRow(i + 2);
+                assertEquals("Person " + i, row.getCell(0).getStringCellValue());
+                assertEquals(1000.0 + i, row.getCell(1).getNumericCellValue());
+            }
+        }
+    }
+
+    @Test
+    void streamingMatchesTheInMemoryRender() throws IOException {
+        Map<String, Object> data = Map.of("title", "People", "people", people());
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        excelWriter.writeFromTemplateStreaming(streamed, TEMPLATE, data);
+        byte[] inMemory = excelWriter.writeFromTemplateToByte(TEMPLATE, data);
+
+        try (XSSFWorkbook streamedWorkbook = new XSSFWorkbook(new ByteArrayInputStream(streamed.toByteArray()));
+             XSSFWorkbook inMemoryWorkbook = new XSSFWorkbook(new ByteArrayInputStream(inMemory))) {
+            Sheet expected = inMemoryWorkbook.getSheet("People");
+            Sheet actual = streamedWorkbook.getSheet("People");
+            assertEquals(expected.getLastRowNum(), actual.getLastRowNum());
+            for (int i = 0; i <= expected.getLastRowNum(); i++) {
+                assertEquals(expected.getRow(i).getCell(0).toString(), actual.getRow(i).getCell(0).toString());
+                if (i > 1) {
+                    assertEquals(expected.getRow(i).getCell(1).getNumericCellValue(), actual.getRow(i).getCell(1).getNumericCellValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * A title row, a header row and one jx:each row, the markup a template needs for streaming.
+     */
+    private static byte[] markedUpTemplate() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("People");
+            sheet.createRow(0).createCell(0).setCellValue("${title}");
+            Row header = sheet.createRow(1);
+            header.createCell(0).setCellValue("Name");
+            header.createCell(1).setCellValue("Salary");
+            Row item = sheet.createRow(2);
+            item.createCell(0).setCellValue("${person.name}");
+            item.createCell(1).setCellValue("${person.salary}");
+
+            CreationHelper helper = workbook.getCreationHelper();
+            Drawing<?> drawing = sheet.createDrawingPatriarch();
+            addComment(helper, drawing, sheet.getRow(0), 0, "jx:area(lastCell=\"B3\")");
+            addComment(helper, drawing, item, 0, "jx:each(items=\"people\" var=\"person\" lastCell=\"B3\")");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void addComment(CreationHelper helper, Drawing<?> drawing, Row row, int column, String text) {
+        ClientAnchor anchor = helper.createClientAnchor();
+        anchor.setRow1(row.getRowNum());
+        anchor.setCol1(column);
+        anchor.setRow2(row.getRowNum() + 2);
+        anchor.setCol2(column + 2);
+        Comment comment = drawing.createCellComment(anchor);
+        comment.setString(helper.createRichTextString(text));
+        row.getCell(column).setCellComment(comment);
+    }
+
+    private static List<Person> people() {
+        List<Person> people = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            people.add(new Person("Person " + i, 1000.0 + i));
+        }
+        return people;
+    }
+
+    public static class Person {
+        private final String name;
+        private final double salary;
+
+        Person(String name, double salary) {
+            this.name = name;
+            this.salary = salary;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getSalary() {
+            return salary;
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package com.example.excelexport.controller;
 
 import com.example.excelexport.entity.ExportHistory;
+import com.example.excelexport.model.CleanupProgress;
+import com.example.excelexport.model.ExportHistoryPage;
+import com.example.excelexport.model.JsonFormat;
+import com.example.excelexport.service.ByteRange;
 import com.example.excelexport.service.ExportHistoryService;
+import com.example.excelexport.service.LocalFileCache;
 import com.example.excelexport.service.MinioService;
+import com.example.excelexport.service.RangeNotSatisfiableException;
 import com.example.excelexport.service.ExportFileService;
+import io.minio.GetObjectResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,6 +37,8 @@ public class ExportController {
     
     private static final Logger logger = LoggerFactory.getLogger(ExportController.class);
     
+    private static final int MAX_HISTORY_PAGE_SIZE = 500;
+    
     @Autowired
     private ExportHistoryService exportHistoryService;
     
@@ -35,23 +48,32 @@ public class ExportController {
     @Autowired
     private ExportFileService exportFileService;
     
+    @Autowired
+    private LocalFileCache localFileCache;
+    
     @GetMapping("/history")
-    public ResponseEntity<List<ExportHistory>> getExportHistory(
+    public ResponseEntity<ExportHistoryPage> getExportHistory(
             @RequestParam(required = false) String exportType,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
         
-        List<ExportHistory> history;
-        
-        if (exportType != null) {
-            history = exportHistoryService.findByExportType(exportType);
-        } else if (status != null) {
-            ExportHistory.ExportStatus exportStatus = ExportHistory.ExportStatus.valueOf(status.toUpperCase());
-            history = exportHistoryService.findByStatus(exportStatus);
-        } else {
-            history = exportHistoryService.findByStatus(null);
+        try {
+            ExportHistory.ExportStatus exportStatus = status != null
+                    ? ExportHistory.ExportStatus.valueOf(status.toUpperCase())
+                    : null;
+            int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+            
+            return ResponseEntity.ok(exportHistoryService.findHistoryPage(exportType, exportStatus, cursor, pageSize));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid export history query: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
-        
-        return ResponseEntity.ok(history);
+    }
+    
+    @GetMapping("/cleanup/progress")
+    public ResponseEntity<List<CleanupProgress>> getCleanupProgress() {
+        return ResponseEntity.ok(exportHistoryService.getCleanupProgress());
     }
     
     @GetMapping("/history/{requestId}")
@@ -62,7 +84,9 @@ public class ExportController {
     }
     
     @GetMapping("/download/{requestId}")
-    public ResponseEntity<InputStreamResource> downloadFile(@PathVariable String requestId) {
+    public ResponseEntity<StreamingResponseBody> downloadFile(
+            @PathVariable String requestId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader) {
         try {
             Optional<ExportHistory> historyOpt = exportHistoryService.findByRequestId(requestId);
             
@@ -83,30 +107,39 @@ public class ExportController {
                 return ResponseEntity.notFound().build();
             }
             
-            if (!minioService.fileExists(history.getFilePath())) {
-                logger.warn("File not found in MinIO for request: {}", requestId);
-                return ResponseEntity.notFound().build();
-            }
-            
-            InputStream fileStream = minioService.downloadFile(history.getFilePath());
-            InputStreamResource resource = new InputStreamResource(fileStream);
-            
             HttpHeaders headers = new HttpHeaders();
             headers.add(HttpHeaders.CONTENT_DISPOSITION, 
                        "attachment; filename=\"" + history.getFileName() + "\"");
             
-            String contentType = history.getFileName().endsWith(".json") ? 
-                "application/json" : 
+            JsonFormat jsonFormat = JsonFormat.forFileName(history.getFileName());
+            String contentType = jsonFormat != null ? 
+                jsonFormat.getContentType() : 
                 "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
             headers.add(HttpHeaders.CONTENT_TYPE, contentType);
             
+            HttpRange range = ByteRange.parse(rangeHeader);
+            FileChannel cachedFile = localFileCache.open(history.getFilePath());
+            if (cachedFile != null) {
+                logger.info("File download initiated for request: {} (local cache)", requestId);
+                return streamLocalFile(cachedFile, range, headers);
+            }
+            
+            // one GET answers existence, length and ETag
+            GetObjectResponse object = minioService.openFile(history.getFilePath(), range);
+            if (object == null) {
+                logger.warn("File not found in MinIO for request: {}", requestId);
+                return ResponseEntity.notFound().build();
+            }
+            
             logger.info("File download initiated for request: {}", requestId);
             
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .body(resource);
-                    
+            return streamObject(object, headers, range == null ? history.getFilePath() : null);
+            
+        } catch (RangeNotSatisfiableException e) {
+            logger.warn("Unsatisfiable range {} for request: {}", rangeHeader, requestId);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .build();
         } catch (Exception e) {
             logger.error("Failed to download file for request: {}", requestId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -200,6 +233,90 @@ public class ExportController {
         }
     }
     
+    /**
+     * Copies the object to the response as it is read, so the file never sits in memory. MinIO answers a
+     * ranged GET with Content-Range, which makes the response a 206. A full download of
+     * {@code cachePath} is also copied into the local file cache.
+     */
+    private ResponseEntity<StreamingResponseBody> streamObject(GetObjectResponse object, HttpHeaders headers,
+                                                               String cachePath) {
+        headers.add(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String contentLength = object.headers().get(HttpHeaders.CONTENT_LENGTH);
+        if (contentLength != null) {
+            headers.setContentLength(Long.parseLong(contentLength));
+        }
+        String etag = object.headers().get(HttpHeaders.ETAG);
+        if (etag != null) {
+            headers.add(HttpHeaders.ETAG, etag);
+        }
+        String contentRange = object.headers().get(HttpHeaders.CONTENT_RANGE);
+        if (contentRange != null) {
+            headers.add(HttpHeaders.CONTENT_RANGE, contentRange);
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            LocalFileCache.CacheFile cacheFile = cachePath != null && contentRange == null
+                    ? localFileCache.begin(cachePath)
+                    : null;
+            try (GetObjectResponse in = object) {
+                if (cacheFile == null) {
+                    in.transferTo(outputStream);
+                    return;
+                }
+                OutputStream out = cacheFile.wrap(outputStream);
+                in.transferTo(out);
+                out.flush();
+                cacheFile.commit();
+            } finally {
+                if (cacheFile != null) {
+                    cacheFile.abort();
+                }
+            }
+        };
+        HttpStatus status = contentRange != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+    
+    /**
+     * Serves a locally cached file, honouring a single range. The servlet stream is not a channel, so
+     * {@link FileChannel#transferTo} falls back to a buffered copy here rather than sendfile; the gain
+     * over MinIO is skipping the network round trip, not the copy.
+     */
+    private ResponseEntity<StreamingResponseBody> streamLocalFile(FileChannel file, HttpRange range,
+                                                                  HttpHeaders headers) throws IOException {
+        long length = file.size();
+        long position = 0;
+        long count = length;
+        if (range != null) {
+            ByteRange resolved;
+            try {
+                resolved = ByteRange.resolve(range, length);
+            } catch (RangeNotSatisfiableException e) {
+                file.close();
+                throw e;
+            }
+            position = resolved.getStart();
+            count = resolved.getCount();
+            headers.add(HttpHeaders.CONTENT_RANGE, resolved.toContentRange());
+        }
+        headers.add(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setContentLength(count);
+        
+        long start = position;
+        long total = count;
+        StreamingResponseBody body = outputStream -> {
+            try (FileChannel in = file) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long sent = 0;
+                while (sent < total) {
+                    sent += in.transferTo(start + sent, total - sent, target);
+                }
+            }
+        };
+        HttpStatus status = range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK;
+        return ResponseEntity.status(status).headers(headers).body(body);
+    }
+    
     private String extractFileName(String filePath) {
         if (filePath == null) return null;
         int lastSlash = filePath.lastIndexOf('/');
@@ -5,11 +5,18 @@ import java.time.LocalDateTime;
 import java.util.Map;
 
 @Entity
-@Table(name = "export_history")
+@Table(name = "export_history", indexes = {
+    @Index(name = "idx_export_history_time_id", columnList = "time_request DESC, id DESC"),
+    @Index(name = "idx_export_history_type_time_id", columnList = "export_type, time_request DESC, id DESC"),
+    @Index(name = "idx_export_history_type_status_time_id", columnList = "export_type, status, time_request DESC, id DESC"),
+    @Index(name = "idx_export_history_status_time_id", columnList = "status, time_request DESC, id DESC"),
+    @Index(name = "idx_export_history_cache_key", columnList = "cache_key, status, completed_time DESC")
+})
 public class ExportHistory {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "export_history_seq")
+    @SequenceGenerator(name = "export_history_seq", sequenceName = "export_history_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "request_id", unique = true, nullable = false)
@@ -46,6 +53,12 @@ public class ExportHistory {
     @Column(name = "file_size")
     private Long fileSize;
     
+    /**
+     * Set only on exports that generated their own file, so reusing a result never extends its TTL.
+     */
+    @Column(name = "cache_key", length = 64)
+    private String cacheKey;
+    
     public enum ExportStatus {
         PENDING,
         PROCESSING,
@@ -161,5 +174,13 @@ public class ExportHistory {
     public void setFileSize(Long fileSize) {
         this.fileSize = fileSize;
     }
+    
+    public String getCacheKey() {
+        return cacheKey;
+    }
+    
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
 }
 
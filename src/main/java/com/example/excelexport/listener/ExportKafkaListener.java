@@ -1,26 +1,61 @@
 package com.example.excelexport.listener;
 
 import com.example.excelexport.entity.ExportHistory;
+import com.example.excelexport.model.ExportOutcome;
 import com.example.excelexport.model.ExportRequest;
+import com.example.excelexport.model.UploadedFile;
+import com.example.excelexport.service.ExportFileService;
 import com.example.excelexport.service.ExportServiceRegistry;
 import com.example.excelexport.service.ExportService;
 import com.example.excelexport.service.ExportHistoryService;
+import com.example.excelexport.service.ExportMetrics;
+import com.example.excelexport.service.ExportResultCache;
 import com.example.excelexport.service.MinioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Component
 public class ExportKafkaListener {
     
     private static final Logger logger = LoggerFactory.getLogger(ExportKafkaListener.class);
     
+    public static final String LISTENER_ID = "exportRequestListener";
+    public static final String BATCH_LISTENER_ID = "exportRequestBatchListener";
+    
+    private static final AtomicLong REQUEST_SEQUENCE = new AtomicLong();
+    
+    private static final String UNSUPPORTED_EXPORT_TYPE = "unsupported";
+    private static final String BATCH_EXPORT_TYPE = "batch";
+    
     @Autowired
     private ExportServiceRegistry exportServiceRegistry;
     
@@ -30,51 +65,348 @@ public class ExportKafkaListener {
     @Autowired
     private MinioService minioService;
     
+    @Autowired
+    private ExportFileService exportFileService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
-    @KafkaListener(topics = "${app.kafka.export.topic:excel-export-requests}")
-    public void handleExportRequest(String message) {
+    @Autowired
+    private ExportMetrics exportMetrics;
+    
+    @Autowired
+    private ExportResultCache exportResultCache;
+    
+    @Autowired
+    @Qualifier("exportWorkerExecutor")
+    private ThreadPoolTaskExecutor exportWorkerExecutor;
+    
+    @Autowired
+    private KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    
+    @Value("${app.kafka.export.concurrency:3}")
+    private int concurrency;
+    
+    @Value("${app.kafka.export.worker-threads:4}")
+    private int workerThreads;
+    
+    @Value("${app.kafka.export.worker-queue-capacity:8}")
+    private int workerQueueCapacity;
+    
+    private Semaphore workerPermits;
+    private int pauseThreshold;
+    private int batchLanes;
+    
+    @PostConstruct
+    public void initWorkerPermits() {
+        int capacity = workerThreads + workerQueueCapacity;
+        workerPermits = new Semaphore(capacity);
+        // keep one free slot per consumer thread for a record polled just before the pause took effect
+        pauseThreshold = Math.min(concurrency, capacity);
+        // a lane holds one worker permit while it runs, so lanes across all in-flight batches never
+        // overflow the worker queue; this only caps how many one batch asks for
+        batchLanes = Math.max(1, capacity / concurrency);
+    }
+    
+    @KafkaListener(id = LISTENER_ID, topics = "${app.kafka.export.topic:excel-export-requests}",
+                   autoStartup = "#{!${app.kafka.export.batch.enabled:false}}")
+    public void handleExportRequest(String message, Acknowledgment acknowledgment) {
+        acquireWorkerPermit();
+        pauseIfSaturated();
+        
+        try {
+            exportWorkerExecutor.execute(() -> {
+                try {
+                    processExportRequest(message);
+                } finally {
+                    acknowledgment.acknowledge();
+                    workerPermits.release();
+                    resumeIfDrained();
+                }
+            });
+        } catch (RuntimeException e) {
+            workerPermits.release();
+            resumeIfDrained();
+            throw e;
+        }
+    }
+    
+    /**
+     * Inserts the batch's history rows, then runs its exports on the worker pool without holding the
+     * consumer: the batch's partitions are paused until every export has finished, its outcomes are
+     * applied and the batch is acknowledged, so polling continues within {@code max.poll.interval.ms}.
+     */
+    @KafkaListener(id = BATCH_LISTENER_ID, topics = "${app.kafka.export.topic:excel-export-requests}",
+                   containerFactory = "batchKafkaListenerContainerFactory",
+                   autoStartup = "${app.kafka.export.batch.enabled:false}",
+                   properties = "max.poll.records=${app.kafka.export.batch.max-records:100}")
+    public void handleExportRequestBatch(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment) {
+        logger.info("Received batch of {} export request messages", records.size());
+        
+        List<ExportRequest> requests = new ArrayList<>(records.size());
+        List<ExportHistory> histories = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            ExportRequest request = parseMessage(record.value());
+            ExportHistory history = exportHistoryService.buildExportHistory(
+                request.getRequestId(), 
+                request.getTypeExport(), 
+                request.getParamFilter()
+            );
+            
+            if (exportServiceRegistry.isSupported(request.getTypeExport())) {
+                history.setStatus(ExportHistory.ExportStatus.PROCESSING);
+            } else {
+                history.setStatus(ExportHistory.ExportStatus.FAILED);
+                history.setErrorMessage("Unsupported export type: " + request.getTypeExport());
+                history.setCompletedTime(history.getTimeRequest());
+            }
+            requests.add(request);
+            histories.add(history);
+        }
+        // a redelivered batch carries request ids that already have a row; those are not exported again
+        Set<String> insertedRequestIds = timeHistoryUpdate(BATCH_EXPORT_TYPE, () -> exportHistoryService.createExportHistories(histories))
+                .stream()
+                .map(ExportHistory::getRequestId)
+                .collect(Collectors.toSet());
+        
+        Queue<ExportRequest> pending = new ConcurrentLinkedQueue<>();
+        for (ExportRequest request : requests) {
+            if (!insertedRequestIds.remove(request.getRequestId())) {
+                logger.warn("Export request {} already recorded, skipping", request.getRequestId());
+            } else if (exportServiceRegistry.isSupported(request.getTypeExport())) {
+                pending.add(request);
+            } else {
+                logger.error("Unsupported export type: {}", request.getTypeExport());
+                exportMetrics.recordOutcome(UNSUPPORTED_EXPORT_TYPE, ExportMetrics.OUTCOME_FAILED);
+            }
+        }
+        
+        int exportCount = pending.size();
+        if (exportCount == 0) {
+            acknowledgment.acknowledge();
+            logger.info("Processed batch of {} export requests (0 exported)", records.size());
+            return;
+        }
+        
+        Set<TopicPartition> partitions = records.stream()
+                .map(record -> new TopicPartition(record.topic(), record.partition()))
+                .collect(Collectors.toSet());
+        MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(BATCH_LISTENER_ID);
+        
+        List<ExportOutcome> outcomes = Collections.synchronizedList(new ArrayList<>(exportCount));
+        List<CompletableFuture<Void>> lanes = new ArrayList<>(batchLanes);
+        try {
+            if (container != null) {
+                partitions.forEach(container::pausePartition);
+            }
+            int laneCount = Math.min(batchLanes, exportCount);
+            acquireWorkerPermit();
+            lanes.add(startLane(pending, outcomes));
+            while (lanes.size() < laneCount && workerPermits.tryAcquire()) {
+                lanes.add(startLane(pending, outcomes));
+            }
+        } catch (RuntimeException e) {
+            // the lanes already started drain the queue; whatever is left is failed below
+            logger.error("Failed to start batch exports, {} lane(s) running", lanes.size(), e);
+        }
+        
+        CompletableFuture.allOf(lanes.toArray(new CompletableFuture[0])).whenComplete((ignored, throwable) -> {
+            try {
+                if (throwable != null) {
+                    logger.error("Batch export stopped early, {} of {} exports finished", outcomes.size(), exportCount, throwable);
+                }
+                for (ExportRequest request = pending.poll(); request != null; request = pending.poll()) {
+                    exportMetrics.recordOutcome(request.getTypeExport(), ExportMetrics.OUTCOME_FAILED);
+                    outcomes.add(ExportOutcome.failed(request.getRequestId(), "Export worker pool rejected the export"));
+                }
+                timeHistoryUpdate(BATCH_EXPORT_TYPE, () -> {
+                    exportHistoryService.applyOutcomes(new ArrayList<>(outcomes));
+                    return null;
+                });
+                logger.info("Processed batch of {} export requests ({} exported)", records.size(), outcomes.size());
+            } catch (RuntimeException e) {
+                logger.error("Failed to record batch outcomes", e);
+            } finally {
+                acknowledgment.acknowledge();
+                if (container != null) {
+                    partitions.forEach(container::resumePartition);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Starts a lane on a worker permit the caller has already taken; the permit is returned when the
+     * lane finishes.
+     */
+    private CompletableFuture<Void> startLane(Queue<ExportRequest> pending, List<ExportOutcome> outcomes) {
+        try {
+            return runLane(pending, outcomes).whenComplete((ignored, throwable) -> workerPermits.release());
+        } catch (RuntimeException e) {
+            workerPermits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Runs the batch's pending exports one after another on the worker pool. A request the pool
+     * rejects goes back on the queue so the batch can still record it as failed.
+     */
+    private CompletableFuture<Void> runLane(Queue<ExportRequest> pending, List<ExportOutcome> outcomes) {
+        ExportRequest request = pending.poll();
+        if (request == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<ExportOutcome> export;
+        try {
+            export = CompletableFuture.supplyAsync(() -> exportOutcome(request), exportWorkerExecutor);
+        } catch (RuntimeException e) {
+            pending.add(request);
+            throw e;
+        }
+        return export.thenCompose(outcome -> {
+            outcomes.add(outcome);
+            return runLane(pending, outcomes);
+        });
+    }
+    
+    private void acquireWorkerPermit() {
+        try {
+            workerPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an export worker", e);
+        }
+    }
+    
+    private ExportOutcome exportOutcome(ExportRequest request) {
+        try {
+            ExportOutcome outcome = runExport(request);
+            exportMetrics.recordOutcome(request.getTypeExport(), ExportMetrics.OUTCOME_COMPLETED);
+            return outcome;
+        } catch (Exception e) {
+            logger.error("Failed to process export request: {}", request.getRequestId(), e);
+            exportMetrics.recordOutcome(request.getTypeExport(), ExportMetrics.OUTCOME_FAILED);
+            return ExportOutcome.failed(request.getRequestId(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Points the request at a matching export completed within the cache TTL, or generates and
+     * uploads a new file: JSON when the request names a {@code jsonFormat}, otherwise Excel.
+     */
+    private ExportOutcome runExport(ExportRequest request) {
+        ExportService<?> exportService = exportServiceRegistry.getExportService(request.getTypeExport());
+        String cacheKey = exportResultCache.cacheKey(exportService, request);
+        
+        Optional<ExportHistory> cached = exportResultCache.findReusable(cacheKey);
+        if (cacheKey != null) {
+            exportMetrics.recordCacheLookup(request.getTypeExport(), cached.isPresent());
+        }
+        if (cached.isPresent()) {
+            ExportHistory source = cached.get();
+            logger.info("Reusing export {} for request: {} ({})", source.getRequestId(), request.getRequestId(),
+                       source.getFilePath());
+            return ExportOutcome.completed(request.getRequestId(), source.getFilePath(), source.getFileName(),
+                    source.getFileSize(), null);
+        }
+        
+        UploadedFile uploadedFile = request.getJsonFormat() != null
+                ? exportFileService.exportToJsonAndUpload(request)
+                : minioService.uploadFile(request.getRequestId(), request.getTypeExport(),
+                        outputStream -> exportService.export(request, outputStream));
+        return ExportOutcome.completed(request.getRequestId(), uploadedFile.getFilePath(),
+                extractFileName(uploadedFile.getFilePath()), uploadedFile.getFileSize(), cacheKey);
+    }
+    
+    private synchronized void pauseIfSaturated() {
+        MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && !container.isPauseRequested() && workerPermits.availablePermits() < pauseThreshold) {
+            container.pause();
+            logger.info("Export workers saturated, pausing consumption");
+        }
+    }
+    
+    private synchronized void resumeIfDrained() {
+        MessageListenerContainer container = kafkaListenerEndpointRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isPauseRequested() && workerPermits.availablePermits() >= pauseThreshold) {
+            container.resume();
+            logger.info("Export workers available, resuming consumption");
+        }
+    }
+    
+    private void processExportRequest(String message) {
         ExportRequest request = null;
         try {
             logger.info("Received export request message: {}", message);
             
             request = parseMessage(message);
+            ExportRequest parsedRequest = request;
+            String exportType = metricsExportType(request);
             
-            ExportHistory history = exportHistoryService.createExportHistory(
-                request.getRequestId(), 
-                request.getTypeExport(), 
-                request.getParamFilter()
-            );
+            if (exportHistoryService.findByRequestId(request.getRequestId()).isPresent()) {
+                // redelivered after its offset commit was lost; the first delivery owns the export
+                logger.warn("Export request {} already recorded, skipping", request.getRequestId());
+                return;
+            }
+            
+            timeHistoryUpdate(exportType, () -> exportHistoryService.createExportHistory(
+                parsedRequest.getRequestId(), 
+                parsedRequest.getTypeExport(), 
+                parsedRequest.getParamFilter()
+            ));
             
             if (!exportServiceRegistry.isSupported(request.getTypeExport())) {
                 logger.error("Unsupported export type: {}", request.getTypeExport());
-                exportHistoryService.updateWithError(request.getRequestId(), 
-                    "Unsupported export type: " + request.getTypeExport());
+                timeHistoryUpdate(exportType, () -> exportHistoryService.updateWithError(parsedRequest.getRequestId(), 
+                    "Unsupported export type: " + parsedRequest.getTypeExport()));
+                exportMetrics.recordOutcome(exportType, ExportMetrics.OUTCOME_FAILED);
                 return;
             }
             
-            exportHistoryService.updateStatus(request.getRequestId(), ExportHistory.ExportStatus.PROCESSING);
-            
-            ExportService<?> exportService = exportServiceRegistry.getExportService(request.getTypeExport());
-            byte[] excelData = exportService.export(request);
+            if (!timeHistoryUpdate(exportType, () -> exportHistoryService.updateStatus(
+                    parsedRequest.getRequestId(), ExportHistory.ExportStatus.PROCESSING))) {
+                logger.warn("Export request {} is no longer pending, skipping", request.getRequestId());
+                return;
+            }
             
-            String filePath = minioService.uploadFile(request.getRequestId(), request.getTypeExport(), excelData);
-            String fileName = extractFileName(filePath);
+            ExportOutcome outcome = runExport(request);
             
-            exportHistoryService.updateWithFileInfo(request.getRequestId(), filePath, fileName, excelData.length);
+            timeHistoryUpdate(exportType, () -> exportHistoryService.updateWithFileInfo(parsedRequest.getRequestId(),
+                outcome.getFilePath(), outcome.getFileName(), outcome.getFileSize(), outcome.getCacheKey()));
+            exportMetrics.recordOutcome(exportType, ExportMetrics.OUTCOME_COMPLETED);
             
             logger.info("Successfully generated and uploaded Excel for request: {} with {} bytes to {}", 
-                       request.getRequestId(), excelData.length, filePath);
+                       request.getRequestId(), outcome.getFileSize(), outcome.getFilePath());
             
         } catch (Exception e) {
             logger.error("Failed to process export request: {}", message, e);
             if (request != null) {
-                exportHistoryService.updateWithError(request.getRequestId(), e.getMessage());
+                String requestId = request.getRequestId();
+                String exportType = metricsExportType(request);
+                timeHistoryUpdate(exportType, () -> exportHistoryService.updateWithError(requestId, e.getMessage()));
+                exportMetrics.recordOutcome(exportType, ExportMetrics.OUTCOME_FAILED);
             }
         }
     }
     
+    private <R> R timeHistoryUpdate(String exportType, Supplier<R> update) {
+        Timer.Sample sample = exportMetrics.startPhase();
+        try {
+            return update.get();
+        } finally {
+            exportMetrics.endPhase(sample, exportType, ExportMetrics.PHASE_HISTORY);
+        }
+    }
+    
+    /**
+     * Export types arrive as free text, so unknown ones share one tag value instead of each
+     * creating new meters.
+     */
+    private String metricsExportType(ExportRequest request) {
+        return exportServiceRegistry.isSupported(request.getTypeExport()) ? request.getTypeExport() : UNSUPPORTED_EXPORT_TYPE;
+    }
+    
     private ExportRequest parseMessage(String message) {
         try {
             if (message.contains("-")) {
@@ -95,7 +427,7 @@ public class ExportKafkaListener {
     }
     
     private String generateRequestId() {
-        return "REQ_" + System.currentTimeMillis();
+        return "REQ_" + System.currentTimeMillis() + "_" + REQUEST_SEQUENCE.incrementAndGet();
     }
     
     private String extractFileName(String filePath) {
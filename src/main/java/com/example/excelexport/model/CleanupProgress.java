@@ -0,0 +1,88 @@
+package com.example.excelexport.model;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CleanupProgress {
+    private final String jobName;
+    private volatile boolean running;
+    private volatile LocalDateTime lastStartedAt;
+    private volatile LocalDateTime lastFinishedAt;
+    private volatile String lastError;
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong currentRunRowsScanned = new AtomicLong();
+    private final AtomicLong rowsScanned = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong filesDeleted = new AtomicLong();
+    private final AtomicLong fileDeleteFailures = new AtomicLong();
+    
+    public CleanupProgress(String jobName) {
+        this.jobName = jobName;
+    }
+    
+    public void start() {
+        running = true;
+        lastStartedAt = LocalDateTime.now();
+        lastError = null;
+        currentRunRowsScanned.set(0);
+        runs.incrementAndGet();
+    }
+    
+    public void recordChunk(int scanned, int updated, int deleted, int deleteFailures) {
+        currentRunRowsScanned.addAndGet(scanned);
+        rowsScanned.addAndGet(scanned);
+        rowsUpdated.addAndGet(updated);
+        filesDeleted.addAndGet(deleted);
+        fileDeleteFailures.addAndGet(deleteFailures);
+    }
+    
+    public void finish(Exception error) {
+        lastError = error != null ? error.getMessage() : null;
+        lastFinishedAt = LocalDateTime.now();
+        running = false;
+    }
+    
+    public String getJobName() {
+        return jobName;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    public LocalDateTime getLastStartedAt() {
+        return lastStartedAt;
+    }
+    
+    public LocalDateTime getLastFinishedAt() {
+        return lastFinishedAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public long getRuns() {
+        return runs.get();
+    }
+    
+    public long getCurrentRunRowsScanned() {
+        return currentRunRowsScanned.get();
+    }
+    
+    public long getRowsScanned() {
+        return rowsScanned.get();
+    }
+    
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+    
+    public long getFilesDeleted() {
+        return filesDeleted.get();
+    }
+    
+    public long getFileDeleteFailures() {
+        return fileDeleteFailures.get();
+    }
+}
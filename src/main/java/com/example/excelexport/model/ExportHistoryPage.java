@@ -0,0 +1,25 @@
+package com.example.excelexport.model;
+
+import java.util.List;
+
+public class ExportHistoryPage {
+    private final List<ExportHistorySummary> items;
+    private final String nextCursor;
+    
+    public ExportHistoryPage(List<ExportHistorySummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<ExportHistorySummary> getItems() {
+        return items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
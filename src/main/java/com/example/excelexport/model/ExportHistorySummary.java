@@ -0,0 +1,60 @@
+package com.example.excelexport.model;
+
+import com.example.excelexport.entity.ExportHistory;
+
+import java.time.LocalDateTime;
+
+public class ExportHistorySummary {
+    private final Long id;
+    private final String requestId;
+    private final String exportType;
+    private final ExportHistory.ExportStatus status;
+    private final LocalDateTime timeRequest;
+    private final LocalDateTime completedTime;
+    private final String fileName;
+    private final Long fileSize;
+    
+    public ExportHistorySummary(Long id, String requestId, String exportType, ExportHistory.ExportStatus status,
+                                LocalDateTime timeRequest, LocalDateTime completedTime, String fileName, Long fileSize) {
+        this.id = id;
+        this.requestId = requestId;
+        this.exportType = exportType;
+        this.status = status;
+        this.timeRequest = timeRequest;
+        this.completedTime = completedTime;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getRequestId() {
+        return requestId;
+    }
+    
+    public String getExportType() {
+        return exportType;
+    }
+    
+    public ExportHistory.ExportStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getTimeRequest() {
+        return timeRequest;
+    }
+    
+    public LocalDateTime getCompletedTime() {
+        return completedTime;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public Long getFileSize() {
+        return fileSize;
+    }
+}
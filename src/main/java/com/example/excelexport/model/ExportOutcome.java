@@ -0,0 +1,60 @@
+package com.example.excelexport.model;
+
+public class ExportOutcome {
+    private final String requestId;
+    private final String filePath;
+    private final String fileName;
+    private final long fileSize;
+    private final String cacheKey;
+    private final String errorMessage;
+    
+    private ExportOutcome(String requestId, String filePath, String fileName, long fileSize, String cacheKey,
+                          String errorMessage) {
+        this.requestId = requestId;
+        this.filePath = filePath;
+        this.fileName = fileName;
+        this.fileSize = fileSize;
+        this.cacheKey = cacheKey;
+        this.errorMessage = errorMessage;
+    }
+    
+    /**
+     * {@code cacheKey} is null when the file was reused from an earlier export rather than generated.
+     */
+    public static ExportOutcome completed(String requestId, String filePath, String fileName, long fileSize,
+                                          String cacheKey) {
+        return new ExportOutcome(requestId, filePath, fileName, fileSize, cacheKey, null);
+    }
+    
+    public static ExportOutcome failed(String requestId, String errorMessage) {
+        return new ExportOutcome(requestId, null, null, 0, null, errorMessage);
+    }
+    
+    public boolean isCompleted() {
+        return filePath != null;
+    }
+    
+    public String getRequestId() {
+        return requestId;
+    }
+    
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+    
+    public String getCacheKey() {
+        return cacheKey;
+    }
+    
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
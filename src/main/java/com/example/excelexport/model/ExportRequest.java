@@ -6,6 +6,8 @@ public class ExportRequest {
     private String typeExport;
     private Map<String, Object> paramFilter;
     private String requestId;
+    /** Null for an Excel export. */
+    private JsonFormat jsonFormat;
     
     public ExportRequest() {}
     
@@ -38,5 +40,13 @@ public class ExportRequest {
     public void setRequestId(String requestId) {
         this.requestId = requestId;
     }
+    
+    public JsonFormat getJsonFormat() {
+        return jsonFormat;
+    }
+    
+    public void setJsonFormat(JsonFormat jsonFormat) {
+        this.jsonFormat = jsonFormat;
+    }
 }
 
@@ -0,0 +1,44 @@
+package com.example.excelexport.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in the history listing: the {@code (timeRequest, id)} of the last row returned,
+ * carried to the client as an opaque URL-safe token.
+ */
+public class HistoryCursor {
+    private final LocalDateTime timeRequest;
+    private final Long id;
+    
+    public HistoryCursor(LocalDateTime timeRequest, Long id) {
+        this.timeRequest = timeRequest;
+        this.id = id;
+    }
+    
+    /**
+     * @throws IllegalArgumentException when the token was not produced by {@link #encode()}
+     */
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new HistoryCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    public String encode() {
+        String value = timeRequest + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public LocalDateTime getTimeRequest() {
+        return timeRequest;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+}
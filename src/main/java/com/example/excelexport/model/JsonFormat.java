@@ -0,0 +1,36 @@
+package com.example.excelexport.model;
+
+public enum JsonFormat {
+    /** One JSON array holding every row. */
+    ARRAY("json", "application/json"),
+    /** Newline-delimited JSON: one object per line, for line-oriented consumers. */
+    NDJSON("ndjson", "application/x-ndjson");
+    
+    private final String extension;
+    private final String contentType;
+    
+    JsonFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * @return the format a file was written in, or null if it is not a JSON export
+     */
+    public static JsonFormat forFileName(String fileName) {
+        for (JsonFormat format : values()) {
+            if (fileName.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.excelexport.model;
+
+public class UploadedFile {
+    private final String filePath;
+    private final long fileSize;
+    
+    public UploadedFile(String filePath, long fileSize) {
+        this.filePath = filePath;
+        this.fileSize = fileSize;
+    }
+    
+    public String getFilePath() {
+        return filePath;
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+}
@@ -1,27 +1,94 @@
 package com.example.excelexport.repository;
 
 import com.example.excelexport.entity.ExportHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ExportHistoryRepository extends JpaRepository<ExportHistory, Long> {
+public interface ExportHistoryRepository extends JpaRepository<ExportHistory, Long>, ExportHistoryRepositoryCustom {
     
     Optional<ExportHistory> findByRequestId(String requestId);
     
+    List<ExportHistory> findByRequestIdIn(Collection<String> requestIds);
+    
     List<ExportHistory> findByExportTypeOrderByTimeRequestDesc(String exportType);
     
     List<ExportHistory> findByStatusOrderByTimeRequestDesc(ExportHistory.ExportStatus status);
     
-    @Query("SELECT e FROM ExportHistory e WHERE e.timeRequest < :expiredTime AND e.status = 'COMPLETED'")
-    List<ExportHistory> findExpiredExports(LocalDateTime expiredTime);
+    Optional<ExportHistory> findFirstByCacheKeyAndStatusAndCompletedTimeAfterOrderByCompletedTimeDesc(
+            String cacheKey, ExportHistory.ExportStatus status, LocalDateTime completedAfter);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory e SET e.status = :toStatus " +
+           "WHERE e.requestId = :requestId AND e.status IN :fromStatuses")
+    int transitionStatus(String requestId, Collection<ExportHistory.ExportStatus> fromStatuses,
+                         ExportHistory.ExportStatus toStatus);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory e SET e.status = :toStatus, e.completedTime = :completedTime " +
+           "WHERE e.requestId = :requestId AND e.status IN :fromStatuses")
+    int transitionStatusCompletedAt(String requestId, Collection<ExportHistory.ExportStatus> fromStatuses,
+                                    ExportHistory.ExportStatus toStatus, LocalDateTime completedTime);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory e SET e.status = :toStatus, e.filePath = :filePath, e.fileName = :fileName, " +
+           "e.fileSize = :fileSize, e.cacheKey = :cacheKey, e.completedTime = :completedTime " +
+           "WHERE e.requestId = :requestId AND e.status IN :fromStatuses")
+    int transitionWithFileInfo(String requestId, Collection<ExportHistory.ExportStatus> fromStatuses,
+                               ExportHistory.ExportStatus toStatus, String filePath, String fileName,
+                               Long fileSize, String cacheKey, LocalDateTime completedTime);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory e SET e.status = :toStatus, e.errorMessage = :errorMessage, " +
+           "e.completedTime = :completedTime " +
+           "WHERE e.requestId = :requestId AND e.status IN :fromStatuses")
+    int transitionWithError(String requestId, Collection<ExportHistory.ExportStatus> fromStatuses,
+                            ExportHistory.ExportStatus toStatus, String errorMessage, LocalDateTime completedTime);
+    
+    @Query("SELECT e.id AS id, e.filePath AS filePath FROM ExportHistory e " +
+           "WHERE e.status = :status AND e.timeRequest < :before AND e.id > :afterId ORDER BY e.id")
+    List<ExportFileRef> findFileRefsChunk(ExportHistory.ExportStatus status, LocalDateTime before, long afterId,
+                                          Pageable pageable);
+    
+    /**
+     * Files among {@code filePaths} still used by completed exports requested at or after
+     * {@code since}, e.g. later requests that reused a cached result.
+     */
+    @Query("SELECT DISTINCT e.filePath FROM ExportHistory e " +
+           "WHERE e.filePath IN :filePaths AND e.status = 'COMPLETED' AND e.timeRequest >= :since")
+    List<String> findFilePathsReferencedSince(Collection<String> filePaths, LocalDateTime since);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory e SET e.status = :toStatus WHERE e.id IN :ids AND e.status = :fromStatus")
+    int transitionStatusByIds(Collection<Long> ids, ExportHistory.ExportStatus fromStatus,
+                              ExportHistory.ExportStatus toStatus);
+    
+    @Transactional
+    @Modifying
+    @Query("UPDATE ExportHistory e SET e.status = :toStatus, e.errorMessage = :errorMessage, " +
+           "e.completedTime = :completedTime " +
+           "WHERE e.id IN :ids AND e.status = :fromStatus")
+    int transitionWithErrorByIds(Collection<Long> ids, ExportHistory.ExportStatus fromStatus,
+                                 ExportHistory.ExportStatus toStatus, String errorMessage, LocalDateTime completedTime);
     
-    @Query("SELECT e FROM ExportHistory e WHERE e.status = 'PROCESSING' AND e.timeRequest < :stuckTime")
-    List<ExportHistory> findStuckProcessingExports(LocalDateTime stuckTime);
+    interface ExportFileRef {
+        Long getId();
+        
+        String getFilePath();
+    }
 }
 
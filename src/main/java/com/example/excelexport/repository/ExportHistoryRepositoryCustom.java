@@ -0,0 +1,17 @@
+package com.example.excelexport.repository;
+
+import com.example.excelexport.entity.ExportHistory;
+import com.example.excelexport.model.ExportHistorySummary;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ExportHistoryRepositoryCustom {
+    
+    /**
+     * Seek page ordered by {@code (timeRequest, id)} descending. Pass a null {@code afterTime} for
+     * the first page; otherwise only rows strictly after {@code (afterTime, afterId)} are returned.
+     */
+    List<ExportHistorySummary> findSummaryPage(String exportType, ExportHistory.ExportStatus status,
+                                               LocalDateTime afterTime, Long afterId, int limit);
+}
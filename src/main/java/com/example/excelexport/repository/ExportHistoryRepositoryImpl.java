@@ -0,0 +1,47 @@
+package com.example.excelexport.repository;
+
+import com.example.excelexport.entity.ExportHistory;
+import com.example.excelexport.model.ExportHistorySummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ExportHistoryRepositoryImpl implements ExportHistoryRepositoryCustom {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<ExportHistorySummary> findSummaryPage(String exportType, ExportHistory.ExportStatus status,
+                                                      LocalDateTime afterTime, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.example.excelexport.model.ExportHistorySummary(" +
+                "e.id, e.requestId, e.exportType, e.status, e.timeRequest, e.completedTime, e.fileName, e.fileSize) " +
+                "FROM ExportHistory e WHERE 1 = 1");
+        if (exportType != null) {
+            jpql.append(" AND e.exportType = :exportType");
+        }
+        if (status != null) {
+            jpql.append(" AND e.status = :status");
+        }
+        if (afterTime != null) {
+            jpql.append(" AND (e.timeRequest < :afterTime OR (e.timeRequest = :afterTime AND e.id < :afterId))");
+        }
+        jpql.append(" ORDER BY e.timeRequest DESC, e.id DESC");
+        
+        TypedQuery<ExportHistorySummary> query = entityManager.createQuery(jpql.toString(), ExportHistorySummary.class);
+        if (exportType != null) {
+            query.setParameter("exportType", exportType);
+        }
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (afterTime != null) {
+            query.setParameter("afterTime", afterTime);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
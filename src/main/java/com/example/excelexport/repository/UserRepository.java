@@ -1,14 +1,39 @@
 package com.example.excelexport.repository;
 
 import com.example.excelexport.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByStatus(String status);
     List<User> findByDepartment(String department);
-}
 
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u")
+    Stream<User> streamAll();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<User> streamByStatus(String status);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<User> streamByDepartment(String department);
+
+    @Query("SELECT COUNT(u) AS rowCount, MAX(u.id) AS maxId FROM User u")
+    TableVersion findTableVersion();
+
+    interface TableVersion {
+        long getRowCount();
+
+        Long getMaxId();
+    }
+}
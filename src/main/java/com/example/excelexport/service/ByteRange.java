@@ -0,0 +1,72 @@
+package com.example.excelexport.service;
+
+import org.springframework.http.HttpRange;
+
+import java.util.List;
+
+/**
+ * One byte range of a file, resolved against the file's length.
+ */
+public final class ByteRange {
+    
+    private final long start;
+    private final long end;
+    private final long length;
+    
+    private ByteRange(long start, long end, long length) {
+        this.start = start;
+        this.end = end;
+        this.length = length;
+    }
+    
+    /**
+     * Only single ranges are served; a malformed or multi-range header gets the whole file, as HTTP allows.
+     *
+     * @return the requested range, or null for the whole file
+     */
+    public static HttpRange parse(String rangeHeader) {
+        if (rangeHeader == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * @throws RangeNotSatisfiableException when the range starts past the end of the file
+     */
+    public static ByteRange resolve(HttpRange range, long length) {
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            throw new RangeNotSatisfiableException("Requested range not satisfiable: " + range, e);
+        }
+        if (start >= length || start > end) {
+            throw new RangeNotSatisfiableException("Requested range not satisfiable: " + range);
+        }
+        return new ByteRange(start, end, length);
+    }
+    
+    public long getStart() {
+        return start;
+    }
+    
+    public long getEnd() {
+        return end;
+    }
+    
+    public long getCount() {
+        return end - start + 1;
+    }
+    
+    public String toContentRange() {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+}
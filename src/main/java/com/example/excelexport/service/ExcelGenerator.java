@@ -1,35 +1,99 @@
 package com.example.excelexport.service;
 
+import io.micrometer.core.instrument.Timer;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 @Component
 public class ExcelGenerator {
     
+    @Value("${app.export.excel.row-window-size:100}")
+    private int rowWindowSize;
+    
+    /**
+     * Columns are sized from the header and this many data rows; measuring every cell of a large
+     * export costs more than writing it.
+     */
+    @Value("${app.export.excel.auto-size-sample-rows:500}")
+    private int autoSizeSampleRows;
+    
+    @Autowired
+    private ExportMetrics exportMetrics;
+    
     public <T> byte[] generateExcel(List<T> data, Map<String, String> headers, 
                                   ExportService<T> exportService) {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+        return generateExcel(data.iterator(), headers, exportService, false);
+    }
+    
+    /**
+     * When {@code streaming} is set only the last {@code app.export.excel.row-window-size}
+     * rows are kept on heap; older rows are flushed to compressed temp files.
+     */
+    public <T> byte[] generateExcel(Iterator<T> data, Map<String, String> headers, 
+                                  ExportService<T> exportService, boolean streaming) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeExcel(data, headers, exportService, streaming, outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    public <T> void writeExcel(Iterator<T> data, Map<String, String> headers, 
+                               ExportService<T> exportService, boolean streaming, OutputStream outputStream) {
+        String exportType = exportService.getSupportedExportType();
+        Workbook workbook = createWorkbook(streaming);
+        try {
             
+            Timer.Sample render = exportMetrics.startPhase();
             Sheet sheet = workbook.createSheet("Export Data");
+            if (sheet instanceof SXSSFSheet) {
+                ((SXSSFSheet) sheet).trackAllColumnsForAutoSizing();
+            }
             
             createHeaderRow(sheet, headers, workbook);
             
-            populateDataRows(sheet, data, headers, exportService);
-            
-            autoSizeColumns(sheet, headers.size());
+            long rows = populateDataRows(sheet, data, headers, exportService);
+            exportMetrics.endPhase(render, exportType, ExportMetrics.PHASE_RENDER);
+            exportMetrics.recordRows(exportType, rows);
             
+            Timer.Sample serialize = exportMetrics.startPhase();
             workbook.write(outputStream);
-            return outputStream.toByteArray();
+            exportMetrics.endPhase(serialize, exportType, ExportMetrics.PHASE_SERIALIZE);
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate Excel file", e);
+        } finally {
+            closeWorkbook(workbook);
+        }
+    }
+    
+    private Workbook createWorkbook(boolean streaming) {
+        if (!streaming) {
+            return new XSSFWorkbook();
+        }
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindowSize);
+        workbook.setCompressTempFiles(true);
+        return workbook;
+    }
+    
+    private void closeWorkbook(Workbook workbook) {
+        try {
+            if (workbook instanceof SXSSFWorkbook) {
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+            workbook.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to close Excel workbook", e);
         }
     }
     
@@ -45,19 +109,29 @@ public class ExcelGenerator {
         }
     }
     
-    private <T> void populateDataRows(Sheet sheet, List<T> data, Map<String, String> headers, 
+    private <T> long populateDataRows(Sheet sheet, Iterator<T> data, Map<String, String> headers, 
                                     ExportService<T> exportService) {
+        ColumnAccessors columns = exportService.createColumnAccessors(headers.keySet());
         int rowIndex = 1;
-        for (T item : data) {
+        boolean columnsSized = false;
+        while (data.hasNext()) {
+            T item = data.next();
             Row row = sheet.createRow(rowIndex++);
-            int columnIndex = 0;
             
-            for (String fieldName : headers.keySet()) {
-                Cell cell = row.createCell(columnIndex++);
-                Object value = exportService.extractFieldValue(item, fieldName);
+            for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+                Cell cell = row.createCell(columnIndex);
+                Object value = columns.get(item, columnIndex);
                 setCellValue(cell, value);
             }
+            if (!columnsSized && rowIndex - 1 >= autoSizeSampleRows) {
+                autoSizeColumns(sheet, columns.size());
+                columnsSized = true;
+            }
+        }
+        if (!columnsSized) {
+            autoSizeColumns(sheet, columns.size());
         }
+        return rowIndex - 1;
     }
     
     private void setCellValue(Cell cell, Object value) {
@@ -84,15 +158,27 @@ public class ExcelGenerator {
         return style;
     }
     
+    /**
+     * Sizes the columns from the rows written so far, then stops a streaming sheet from measuring
+     * the rows still to come.
+     */
     private void autoSizeColumns(Sheet sheet, int columnCount) {
         for (int i = 0; i < columnCount; i++) {
             sheet.autoSizeColumn(i);
         }
+        if (sheet instanceof SXSSFSheet) {
+            ((SXSSFSheet) sheet).untrackAllColumnsForAutoSizing();
+        }
     }
     
     public byte[] createEmptyExcel() {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeEmptyExcel(outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    public void writeEmptyExcel(OutputStream outputStream) {
+        try (Workbook workbook = new XSSFWorkbook()) {
             
             Sheet sheet = workbook.createSheet("No Data");
             Row row = sheet.createRow(0);
@@ -100,7 +186,6 @@ public class ExcelGenerator {
             cell.setCellValue("No data available");
             
             workbook.write(outputStream);
-            return outputStream.toByteArray();
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to create empty Excel file", e);
@@ -0,0 +1,10 @@
+package com.example.excelexport.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@FunctionalInterface
+public interface ExportContentWriter {
+    
+    void write(OutputStream outputStream) throws IOException;
+}
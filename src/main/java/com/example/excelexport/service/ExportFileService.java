@@ -1,6 +1,8 @@
 package com.example.excelexport.service;
 
 import com.example.excelexport.model.ExportRequest;
+import com.example.excelexport.model.JsonFormat;
+import com.example.excelexport.model.UploadedFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,16 +25,21 @@ public class ExportFileService {
     public String exportToExcelAndUpload(ExportRequest request) {
         try {
             ExportService<?> exportService = exportServiceRegistry.getExportService(request.getTypeExport());
-            byte[] excelData = exportService.export(request);
             
-            return minioService.uploadFile(request.getRequestId(), request.getTypeExport(), excelData);
+            return minioService.uploadFile(request.getRequestId(), request.getTypeExport(),
+                    outputStream -> exportService.export(request, outputStream)).getFilePath();
         } catch (Exception e) {
             logger.error("Failed to export Excel and upload to MinIO for request: {}", request.getRequestId(), e);
             throw new RuntimeException("Failed to export Excel and upload", e);
         }
     }
     
-    public String exportToJsonAndUpload(ExportRequest request) {
+    /**
+     * Streams the export to MinIO in the request's {@link ExportRequest#getJsonFormat() JSON format},
+     * defaulting to a JSON array.
+     */
+    public UploadedFile exportToJsonAndUpload(ExportRequest request) {
+        JsonFormat format = request.getJsonFormat() != null ? request.getJsonFormat() : JsonFormat.ARRAY;
         try {
             ExportService<?> exportService = exportServiceRegistry.getExportService(request.getTypeExport());
             
@@ -41,9 +48,8 @@ public class ExportFileService {
             }
             
             JsonExportService<?> jsonExportService = (JsonExportService<?>) exportService;
-            String jsonData = jsonExportService.exportToJson(request);
-            
-            return minioService.uploadJsonFile(request.getRequestId(), request.getTypeExport(), jsonData);
+            return minioService.uploadJsonFile(request.getRequestId(), request.getTypeExport(), format,
+                    outputStream -> jsonExportService.exportToJson(request, outputStream, format));
         } catch (Exception e) {
             logger.error("Failed to export JSON and upload to MinIO for request: {}", request.getRequestId(), e);
             throw new RuntimeException("Failed to export JSON and upload", e);
@@ -1,24 +1,51 @@
 package com.example.excelexport.service;
 
 import com.example.excelexport.entity.ExportHistory;
+import com.example.excelexport.model.CleanupProgress;
+import com.example.excelexport.model.ExportHistoryPage;
+import com.example.excelexport.model.ExportHistorySummary;
+import com.example.excelexport.model.ExportOutcome;
+import com.example.excelexport.model.HistoryCursor;
 import com.example.excelexport.repository.ExportHistoryRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ExportHistoryService {
     
     private static final Logger logger = LoggerFactory.getLogger(ExportHistoryService.class);
     
+    private static final Map<ExportHistory.ExportStatus, Set<ExportHistory.ExportStatus>> ALLOWED_PREVIOUS_STATUSES =
+            new EnumMap<>(ExportHistory.ExportStatus.class);
+    
+    static {
+        ALLOWED_PREVIOUS_STATUSES.put(ExportHistory.ExportStatus.PENDING, EnumSet.noneOf(ExportHistory.ExportStatus.class));
+        ALLOWED_PREVIOUS_STATUSES.put(ExportHistory.ExportStatus.PROCESSING, EnumSet.of(ExportHistory.ExportStatus.PENDING));
+        ALLOWED_PREVIOUS_STATUSES.put(ExportHistory.ExportStatus.COMPLETED, EnumSet.of(ExportHistory.ExportStatus.PROCESSING));
+        ALLOWED_PREVIOUS_STATUSES.put(ExportHistory.ExportStatus.FAILED,
+                EnumSet.of(ExportHistory.ExportStatus.PENDING, ExportHistory.ExportStatus.PROCESSING));
+        ALLOWED_PREVIOUS_STATUSES.put(ExportHistory.ExportStatus.EXPIRED, EnumSet.of(ExportHistory.ExportStatus.COMPLETED));
+    }
+    
     @Autowired
     private ExportHistoryRepository exportHistoryRepository;
     
@@ -28,57 +55,155 @@ public class ExportHistoryService {
     @Autowired
     private ObjectMapper objectMapper;
     
+    @Value("${app.export.cleanup.chunk-size:1000}")
+    private int cleanupChunkSize;
+    
+    @Value("${app.export.cleanup.retention-days:7}")
+    private int retentionDays;
+    
+    @Value("${app.export.cleanup.stuck-timeout-hours:2}")
+    private int stuckTimeoutHours;
+    
+    private final CleanupProgress expiredCleanupProgress = new CleanupProgress("expired-exports");
+    private final CleanupProgress stuckCleanupProgress = new CleanupProgress("stuck-exports");
+    
     public ExportHistory createExportHistory(String requestId, String exportType, Map<String, Object> paramFilters) {
+        return exportHistoryRepository.save(buildExportHistory(requestId, exportType, paramFilters));
+    }
+    
+    public ExportHistory buildExportHistory(String requestId, String exportType, Map<String, Object> paramFilters) {
         try {
             String paramFiltersJson = objectMapper.writeValueAsString(paramFilters);
-            ExportHistory history = new ExportHistory(requestId, exportType, paramFiltersJson);
-            return exportHistoryRepository.save(history);
+            return new ExportHistory(requestId, exportType, paramFiltersJson);
         } catch (Exception e) {
             logger.error("Failed to create export history for request: {}", requestId, e);
             throw new RuntimeException("Failed to create export history", e);
         }
     }
     
-    public void updateStatus(String requestId, ExportHistory.ExportStatus status) {
-        Optional<ExportHistory> historyOpt = exportHistoryRepository.findByRequestId(requestId);
-        if (historyOpt.isPresent()) {
-            ExportHistory history = historyOpt.get();
-            history.setStatus(status);
-            if (status == ExportHistory.ExportStatus.COMPLETED) {
-                history.setCompletedTime(LocalDateTime.now());
+    /**
+     * Inserts the histories whose request id has no row yet, such as those of a redelivered batch, and
+     * returns the ones inserted.
+     */
+    @Transactional
+    public List<ExportHistory> createExportHistories(List<ExportHistory> histories) {
+        Set<String> requestIds = histories.stream()
+                .map(ExportHistory::getRequestId)
+                .collect(Collectors.toSet());
+        Set<String> knownRequestIds = exportHistoryRepository.findByRequestIdIn(requestIds).stream()
+                .map(ExportHistory::getRequestId)
+                .collect(Collectors.toSet());
+        
+        List<ExportHistory> newHistories = new ArrayList<>(histories.size());
+        for (ExportHistory history : histories) {
+            if (knownRequestIds.add(history.getRequestId())) {
+                newHistories.add(history);
+            }
+        }
+        return exportHistoryRepository.saveAll(newHistories);
+    }
+    
+    @Transactional
+    public void applyOutcomes(List<ExportOutcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        
+        Map<String, ExportOutcome> outcomesByRequestId = outcomes.stream()
+                .collect(Collectors.toMap(ExportOutcome::getRequestId, Function.identity(), (first, second) -> second));
+        LocalDateTime completedTime = LocalDateTime.now();
+        
+        for (ExportHistory history : exportHistoryRepository.findByRequestIdIn(outcomesByRequestId.keySet())) {
+            if (history.getStatus() != ExportHistory.ExportStatus.PROCESSING) {
+                logger.warn("Skipped outcome for request: {} in status {}", history.getRequestId(), history.getStatus());
+                continue;
             }
-            exportHistoryRepository.save(history);
+            ExportOutcome outcome = outcomesByRequestId.get(history.getRequestId());
+            if (outcome.isCompleted()) {
+                history.setFilePath(outcome.getFilePath());
+                history.setFileName(outcome.getFileName());
+                history.setFileSize(outcome.getFileSize());
+                history.setCacheKey(outcome.getCacheKey());
+                history.setStatus(ExportHistory.ExportStatus.COMPLETED);
+            } else {
+                history.setStatus(ExportHistory.ExportStatus.FAILED);
+                history.setErrorMessage(outcome.getErrorMessage());
+            }
+            history.setCompletedTime(completedTime);
         }
     }
     
-    public void updateWithFileInfo(String requestId, String filePath, String fileName, long fileSize) {
-        Optional<ExportHistory> historyOpt = exportHistoryRepository.findByRequestId(requestId);
-        if (historyOpt.isPresent()) {
-            ExportHistory history = historyOpt.get();
-            history.setFilePath(filePath);
-            history.setFileName(fileName);
-            history.setFileSize(fileSize);
-            history.setStatus(ExportHistory.ExportStatus.COMPLETED);
-            history.setCompletedTime(LocalDateTime.now());
-            exportHistoryRepository.save(history);
+    /**
+     * Moves the export to {@code status} only if it is currently in one of the statuses allowed to
+     * precede it. Returns whether the transition was applied.
+     */
+    public boolean updateStatus(String requestId, ExportHistory.ExportStatus status) {
+        Set<ExportHistory.ExportStatus> fromStatuses = ALLOWED_PREVIOUS_STATUSES.get(status);
+        if (fromStatuses.isEmpty()) {
+            return false;
         }
+        
+        int updated = status == ExportHistory.ExportStatus.COMPLETED
+                ? exportHistoryRepository.transitionStatusCompletedAt(requestId, fromStatuses, status, LocalDateTime.now())
+                : exportHistoryRepository.transitionStatus(requestId, fromStatuses, status);
+        return applied(updated, requestId, status);
+    }
+    
+    public boolean transitionStatus(String requestId, ExportHistory.ExportStatus expectedStatus,
+                                    ExportHistory.ExportStatus status) {
+        int updated = exportHistoryRepository.transitionStatus(requestId, EnumSet.of(expectedStatus), status);
+        return applied(updated, requestId, status);
+    }
+    
+    public boolean updateWithFileInfo(String requestId, String filePath, String fileName, long fileSize) {
+        return updateWithFileInfo(requestId, filePath, fileName, fileSize, null);
+    }
+    
+    public boolean updateWithFileInfo(String requestId, String filePath, String fileName, long fileSize, String cacheKey) {
+        int updated = exportHistoryRepository.transitionWithFileInfo(requestId,
+                ALLOWED_PREVIOUS_STATUSES.get(ExportHistory.ExportStatus.COMPLETED), ExportHistory.ExportStatus.COMPLETED,
+                filePath, fileName, fileSize, cacheKey, LocalDateTime.now());
+        return applied(updated, requestId, ExportHistory.ExportStatus.COMPLETED);
+    }
+    
+    public boolean updateWithError(String requestId, String errorMessage) {
+        int updated = exportHistoryRepository.transitionWithError(requestId,
+                ALLOWED_PREVIOUS_STATUSES.get(ExportHistory.ExportStatus.FAILED), ExportHistory.ExportStatus.FAILED,
+                errorMessage, LocalDateTime.now());
+        return applied(updated, requestId, ExportHistory.ExportStatus.FAILED);
     }
     
-    public void updateWithError(String requestId, String errorMessage) {
-        Optional<ExportHistory> historyOpt = exportHistoryRepository.findByRequestId(requestId);
-        if (historyOpt.isPresent()) {
-            ExportHistory history = historyOpt.get();
-            history.setStatus(ExportHistory.ExportStatus.FAILED);
-            history.setErrorMessage(errorMessage);
-            history.setCompletedTime(LocalDateTime.now());
-            exportHistoryRepository.save(history);
+    private boolean applied(int updated, String requestId, ExportHistory.ExportStatus status) {
+        if (updated == 0) {
+            logger.warn("Skipped transition to {} for request: {} (not found or not in an allowed status)", status, requestId);
+            return false;
         }
+        return true;
     }
     
     public Optional<ExportHistory> findByRequestId(String requestId) {
         return exportHistoryRepository.findByRequestId(requestId);
     }
     
+    public ExportHistoryPage findHistoryPage(String exportType, ExportHistory.ExportStatus status, String cursor, int size) {
+        LocalDateTime afterTime = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            afterTime = after.getTimeRequest();
+            afterId = after.getId();
+        }
+        
+        List<ExportHistorySummary> rows = exportHistoryRepository.findSummaryPage(exportType, status, afterTime, afterId, size + 1);
+        if (rows.size() <= size) {
+            return new ExportHistoryPage(rows, null);
+        }
+        
+        List<ExportHistorySummary> items = rows.subList(0, size);
+        ExportHistorySummary last = items.get(size - 1);
+        return new ExportHistoryPage(items, new HistoryCursor(last.getTimeRequest(), last.getId()).encode());
+    }
+    
     public List<ExportHistory> findByExportType(String exportType) {
         return exportHistoryRepository.findByExportTypeOrderByTimeRequestDesc(exportType);
     }
@@ -87,36 +212,95 @@ public class ExportHistoryService {
         return exportHistoryRepository.findByStatusOrderByTimeRequestDesc(status);
     }
     
+    public List<CleanupProgress> getCleanupProgress() {
+        return List.of(expiredCleanupProgress, stuckCleanupProgress);
+    }
+    
     @Scheduled(fixedRate = 3600000)
     public void cleanupExpiredExports() {
-        LocalDateTime expiredTime = LocalDateTime.now().minusDays(7);
-        List<ExportHistory> expiredExports = exportHistoryRepository.findExpiredExports(expiredTime);
-        
-        for (ExportHistory export : expiredExports) {
-            try {
-                if (export.getFilePath() != null && minioService.fileExists(export.getFilePath())) {
-                    minioService.deleteFile(export.getFilePath());
+        LocalDateTime expiredTime = LocalDateTime.now().minusDays(retentionDays);
+        expiredCleanupProgress.start();
+        Exception failure = null;
+        try {
+            long afterId = 0;
+            List<ExportHistoryRepository.ExportFileRef> chunk;
+            do {
+                chunk = exportHistoryRepository.findFileRefsChunk(ExportHistory.ExportStatus.COMPLETED, expiredTime,
+                        afterId, PageRequest.of(0, cleanupChunkSize));
+                if (chunk.isEmpty()) {
+                    break;
                 }
-                export.setStatus(ExportHistory.ExportStatus.EXPIRED);
-                exportHistoryRepository.save(export);
-                logger.info("Expired export: {}", export.getRequestId());
-            } catch (Exception e) {
-                logger.error("Failed to cleanup expired export: {}", export.getRequestId(), e);
+                afterId = chunk.get(chunk.size() - 1).getId();
+                expireChunk(chunk, expiredTime);
+            } while (chunk.size() == cleanupChunkSize);
+        } catch (Exception e) {
+            logger.error("Failed to cleanup expired exports", e);
+            failure = e;
+        } finally {
+            expiredCleanupProgress.finish(failure);
+        }
+        logger.info("Expired export cleanup finished: {} rows scanned", expiredCleanupProgress.getCurrentRunRowsScanned());
+    }
+    
+    private void expireChunk(List<ExportHistoryRepository.ExportFileRef> chunk, LocalDateTime expiredTime) {
+        Set<String> filePaths = new LinkedHashSet<>();
+        for (ExportHistoryRepository.ExportFileRef ref : chunk) {
+            if (ref.getFilePath() != null) {
+                filePaths.add(ref.getFilePath());
             }
         }
+        // newer exports that reused a cached result point at the same object; leave it to them
+        if (!filePaths.isEmpty()) {
+            filePaths.removeAll(exportHistoryRepository.findFilePathsReferencedSince(filePaths, expiredTime));
+        }
+        Set<String> failedPaths = minioService.deleteFiles(new ArrayList<>(filePaths));
+        
+        // rows whose file could not be deleted stay COMPLETED and are retried on the next run
+        List<Long> expiredIds = new ArrayList<>(chunk.size());
+        for (ExportHistoryRepository.ExportFileRef ref : chunk) {
+            if (ref.getFilePath() == null || !failedPaths.contains(ref.getFilePath())) {
+                expiredIds.add(ref.getId());
+            }
+        }
+        int expired = expiredIds.isEmpty() ? 0 : exportHistoryRepository.transitionStatusByIds(expiredIds,
+                ExportHistory.ExportStatus.COMPLETED, ExportHistory.ExportStatus.EXPIRED);
+        
+        expiredCleanupProgress.recordChunk(chunk.size(), expired, filePaths.size() - failedPaths.size(), failedPaths.size());
     }
     
     @Scheduled(fixedRate = 1800000)
     public void handleStuckProcessingExports() {
-        LocalDateTime stuckTime = LocalDateTime.now().minusHours(2);
-        List<ExportHistory> stuckExports = exportHistoryRepository.findStuckProcessingExports(stuckTime);
-        
-        for (ExportHistory export : stuckExports) {
-            export.setStatus(ExportHistory.ExportStatus.FAILED);
-            export.setErrorMessage("Export processing timeout");
-            export.setCompletedTime(LocalDateTime.now());
-            exportHistoryRepository.save(export);
-            logger.warn("Marked stuck export as failed: {}", export.getRequestId());
+        LocalDateTime stuckTime = LocalDateTime.now().minusHours(stuckTimeoutHours);
+        stuckCleanupProgress.start();
+        Exception failure = null;
+        try {
+            long afterId = 0;
+            List<ExportHistoryRepository.ExportFileRef> chunk;
+            do {
+                chunk = exportHistoryRepository.findFileRefsChunk(ExportHistory.ExportStatus.PROCESSING, stuckTime,
+                        afterId, PageRequest.of(0, cleanupChunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1).getId();
+                
+                List<Long> ids = new ArrayList<>(chunk.size());
+                for (ExportHistoryRepository.ExportFileRef ref : chunk) {
+                    ids.add(ref.getId());
+                }
+                int failed = exportHistoryRepository.transitionWithErrorByIds(ids, ExportHistory.ExportStatus.PROCESSING,
+                        ExportHistory.ExportStatus.FAILED, "Export processing timeout", LocalDateTime.now());
+                stuckCleanupProgress.recordChunk(chunk.size(), failed, 0, 0);
+                
+                if (failed > 0) {
+                    logger.warn("Marked {} stuck exports as failed", failed);
+                }
+            } while (chunk.size() == cleanupChunkSize);
+        } catch (Exception e) {
+            logger.error("Failed to handle stuck processing exports", e);
+            failure = e;
+        } finally {
+            stuckCleanupProgress.finish(failure);
         }
     }
 }
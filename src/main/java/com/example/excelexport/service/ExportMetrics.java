@@ -0,0 +1,94 @@
+package com.example.excelexport.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters for the export pipeline, tagged by export type where one applies and published
+ * through the actuator {@code metrics} endpoint.
+ */
+@Component
+public class ExportMetrics {
+    
+    public static final String PHASE_QUERY = "query";
+    public static final String PHASE_RENDER = "render";
+    public static final String PHASE_SERIALIZE = "serialize";
+    public static final String PHASE_UPLOAD = "upload";
+    public static final String PHASE_HISTORY = "history";
+    
+    public static final String OUTCOME_COMPLETED = "completed";
+    public static final String OUTCOME_FAILED = "failed";
+    
+    private final MeterRegistry meterRegistry;
+    
+    public ExportMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public Timer.Sample startPhase() {
+        return Timer.start(meterRegistry);
+    }
+    
+    public void endPhase(Timer.Sample sample, String exportType, String phase) {
+        sample.stop(Timer.builder("export.phase.duration")
+                .description("Time spent in one phase of an export")
+                .tag("exportType", exportType)
+                .tag("phase", phase)
+                .register(meterRegistry));
+    }
+    
+    public void recordRows(String exportType, long rows) {
+        Counter.builder("export.rows")
+                .description("Rows written to export files")
+                .tag("exportType", exportType)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+    
+    public void recordBytes(String exportType, long bytes) {
+        DistributionSummary.builder("export.file.size")
+                .description("Size of uploaded export files")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("exportType", exportType)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+    
+    public void recordCacheLookup(String exportType, boolean hit) {
+        Counter.builder("export.cache.lookups")
+                .description("Result cache lookups for repeated exports")
+                .tag("exportType", exportType)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    public void recordPresignedUrlLookup(boolean hit) {
+        Counter.builder("export.presigned.url.lookups")
+                .description("Presigned download URL lookups; misses are signed")
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    public void recordLocalCacheLookup(boolean hit) {
+        Counter.builder("export.local.cache.lookups")
+                .description("Downloads looked up in the node-local file cache")
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    public void recordOutcome(String exportType, String outcome) {
+        Counter.builder("export.requests")
+                .description("Finished export requests")
+                .tag("exportType", exportType)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
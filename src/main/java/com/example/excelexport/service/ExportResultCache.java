@@ -0,0 +1,91 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.ExportHistory;
+import com.example.excelexport.model.ExportRequest;
+import com.example.excelexport.repository.ExportHistoryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Finds a recent completed export with the same content so its MinIO object can be reused. The key
+ * is a SHA-256 of the export type, the filters with null entries removed and keys sorted, the
+ * export service's data version token and, for JSON exports, the JSON format.
+ */
+@Service
+public class ExportResultCache {
+    
+    private final ExportHistoryRepository exportHistoryRepository;
+    private final ObjectMapper canonicalMapper;
+    
+    @Value("${app.export.cache.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.export.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+    
+    @Autowired
+    public ExportResultCache(ExportHistoryRepository exportHistoryRepository, ObjectMapper objectMapper) {
+        this.exportHistoryRepository = exportHistoryRepository;
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+    }
+    
+    /**
+     * Returns null when caching is disabled.
+     */
+    public String cacheKey(ExportService<?> exportService, ExportRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            String filters = canonicalMapper.writeValueAsString(normalize(request.getParamFilter()));
+            String dataVersion = exportService.getDataVersion(request.getParamFilter());
+            String content = request.getTypeExport() + "\n" + filters + "\n" + (dataVersion != null ? dataVersion : "")
+                    + (request.getJsonFormat() != null ? "\n" + request.getJsonFormat() : "");
+            
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to compute export cache key", e);
+        }
+    }
+    
+    public Optional<ExportHistory> findReusable(String cacheKey) {
+        if (cacheKey == null) {
+            return Optional.empty();
+        }
+        return exportHistoryRepository.findFirstByCacheKeyAndStatusAndCompletedTimeAfterOrderByCompletedTimeDesc(
+                cacheKey, ExportHistory.ExportStatus.COMPLETED, LocalDateTime.now().minusMinutes(ttlMinutes));
+    }
+    
+    private Object normalize(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> normalized = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getValue() != null) {
+                    normalized.put(String.valueOf(entry.getKey()), normalize(entry.getValue()));
+                }
+            }
+            return normalized;
+        }
+        if (value instanceof List) {
+            return ((List<?>) value).stream().map(this::normalize).collect(Collectors.toList());
+        }
+        return value;
+    }
+}
@@ -1,35 +1,227 @@
 package com.example.excelexport.service;
 
 import com.example.excelexport.model.ExportRequest;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public abstract class ExportService<T> {
     
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private ExportMetrics exportMetrics;
+    
+    @Value("${app.export.stream.clear-interval:1000}")
+    private int clearInterval;
+    
     public abstract String getSupportedExportType();
     
     public abstract List<T> queryData(Map<String, Object> paramFilter);
     
+    public Stream<T> streamData(Map<String, Object> paramFilter) {
+        return queryData(paramFilter).stream();
+    }
+    
     public abstract Map<String, String> generateHeaders(List<T> data);
     
-    public abstract Object extractFieldValue(T item, String fieldName);
+    /**
+     * Token that changes when the data behind an export changes; it is part of the result cache key.
+     * The default only relies on {@code app.export.cache.ttl-minutes}.
+     */
+    public String getDataVersion(Map<String, Object> paramFilter) {
+        return "";
+    }
+    
+    /**
+     * Reads one cell value. The default reads the field through the cached accessors; a subclass
+     * that overrides this is still called for every cell, see {@link #createColumnAccessors}.
+     */
+    public Object extractFieldValue(T item, String fieldName) {
+        FieldAccessor accessor = FieldAccessors.forField(item.getClass(), fieldName);
+        return accessor != null ? accessor.get(item) : null;
+    }
+    
+    /**
+     * Column accessors for one export. When {@link #extractFieldValue} is overridden every cell goes
+     * through it; otherwise fields are read through the cached accessors. Override to pass
+     * {@code preferGetters} or supply other accessors.
+     */
+    protected ColumnAccessors createColumnAccessors(Collection<String> fieldNames) {
+        if (!overridesExtractFieldValue()) {
+            return new ColumnAccessors(fieldNames);
+        }
+        return new ColumnAccessors(fieldNames) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object get(Object row, int columnIndex) {
+                return extractFieldValue((T) row, getFieldName(columnIndex));
+            }
+        };
+    }
+    
+    private boolean overridesExtractFieldValue() {
+        try {
+            return getClass().getMethod("extractFieldValue", Object.class, String.class).getDeclaringClass() != ExportService.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
     
     public final byte[] export(ExportRequest request) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        export(request, outputStream);
+        return outputStream.toByteArray();
+    }
+    
+    /**
+     * Writes the workbook straight to {@code outputStream}. The stream is not closed.
+     */
+    public final void export(ExportRequest request, OutputStream outputStream) {
         if (!getSupportedExportType().equals(request.getTypeExport())) {
             throw new IllegalArgumentException("Unsupported export type: " + request.getTypeExport());
         }
         
+        if (isStreamingQueryEnabled()) {
+            readOnlyTransaction().executeWithoutResult(status -> exportStream(request, outputStream));
+            return;
+        }
+        
+        Timer.Sample query = exportMetrics.startPhase();
         List<T> data = queryData(request.getParamFilter());
+        exportMetrics.endPhase(query, getSupportedExportType(), ExportMetrics.PHASE_QUERY);
         if (data.isEmpty()) {
-            return createEmptyExcel();
+            writeEmptyExcel(outputStream);
+            return;
         }
         
         Map<String, String> headers = generateHeaders(data);
-        return generateExcel(data, headers);
+        writeExcel(data.iterator(), headers, outputStream);
+    }
+    
+    private void exportStream(ExportRequest request, OutputStream outputStream) {
+        // with a cursor only opening it and fetching the first row count as query time
+        Timer.Sample query = exportMetrics.startPhase();
+        try (Stream<T> stream = streamData(request.getParamFilter())) {
+            Iterator<T> rows = stream.iterator();
+            boolean empty = !rows.hasNext();
+            exportMetrics.endPhase(query, getSupportedExportType(), ExportMetrics.PHASE_QUERY);
+            if (empty) {
+                writeEmptyExcel(outputStream);
+                return;
+            }
+            
+            T firstRow = rows.next();
+            Map<String, String> headers = generateHeaders(List.of(firstRow));
+            writeExcel(new PersistenceContextClearingIterator(firstRow, rows), headers, outputStream);
+        }
+    }
+    
+    /**
+     * Hands the rows to {@code consumer} one at a time: from a cursor inside a read-only transaction
+     * when streaming queries are enabled, otherwise from {@link #queryData}. For exports that do not
+     * go through {@link #writeExcel}.
+     */
+    protected final void consumeData(Map<String, Object> paramFilter, Consumer<Iterator<T>> consumer) {
+        if (isStreamingQueryEnabled()) {
+            readOnlyTransaction().executeWithoutResult(status -> {
+                Timer.Sample query = exportMetrics.startPhase();
+                try (Stream<T> stream = streamData(paramFilter)) {
+                    Iterator<T> rows = stream.iterator();
+                    rows.hasNext();
+                    exportMetrics.endPhase(query, getSupportedExportType(), ExportMetrics.PHASE_QUERY);
+                    consumer.accept(new PersistenceContextClearingIterator(null, rows));
+                }
+            });
+            return;
+        }
+        
+        Timer.Sample query = exportMetrics.startPhase();
+        List<T> data = queryData(paramFilter);
+        exportMetrics.endPhase(query, getSupportedExportType(), ExportMetrics.PHASE_QUERY);
+        consumer.accept(data.iterator());
+    }
+    
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
     }
     
-    protected abstract byte[] generateExcel(List<T> data, Map<String, String> headers);
+    protected abstract byte[] generateExcel(Iterator<T> data, Map<String, String> headers);
+    
+    protected void writeExcel(Iterator<T> data, Map<String, String> headers, OutputStream outputStream) {
+        writeBytes(generateExcel(data, headers), outputStream);
+    }
+    
+    protected boolean isStreamingEnabled() {
+        return false;
+    }
+    
+    protected boolean isStreamingQueryEnabled() {
+        return false;
+    }
     
     protected abstract byte[] createEmptyExcel();
+    
+    protected void writeEmptyExcel(OutputStream outputStream) {
+        writeBytes(createEmptyExcel(), outputStream);
+    }
+    
+    private void writeBytes(byte[] content, OutputStream outputStream) {
+        try {
+            outputStream.write(content);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write export content", e);
+        }
+    }
+    
+    private class PersistenceContextClearingIterator implements Iterator<T> {
+        
+        private final Iterator<T> delegate;
+        private T firstRow;
+        private long rowCount;
+        
+        PersistenceContextClearingIterator(T firstRow, Iterator<T> delegate) {
+            this.firstRow = firstRow;
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return firstRow != null || delegate.hasNext();
+        }
+        
+        @Override
+        public T next() {
+            rowCount++;
+            if (firstRow != null) {
+                T row = firstRow;
+                firstRow = null;
+                return row;
+            }
+            if (clearInterval > 0 && rowCount % clearInterval == 0) {
+                entityManager.clear();
+            }
+            return delegate.next();
+        }
+    }
 }
-
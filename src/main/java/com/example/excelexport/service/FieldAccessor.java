@@ -0,0 +1,7 @@
+package com.example.excelexport.service;
+
+@FunctionalInterface
+public interface FieldAccessor {
+    
+    Object get(Object target);
+}
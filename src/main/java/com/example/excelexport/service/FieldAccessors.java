@@ -0,0 +1,145 @@
+package com.example.excelexport.service;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-class cache of field accessors. {@link #forField} reads the field itself, as the exporters
+ * always have, through a {@link MethodHandle} and plain reflection only as a last resort.
+ * {@link #forProperty} is the opt-in alternative: it prefers a {@link LambdaMetafactory}-generated
+ * call to the public getter, so a getter that derives its value changes what is exported, and falls
+ * back to the field when there is no usable getter.
+ * <p>
+ * The two applications share no library module, so demo-excel ({@code org.example.excel.FieldAccessors})
+ * holds an identical copy along with {@code ColumnAccessors} and {@code FieldAccessor}; change both.
+ */
+public final class FieldAccessors {
+    
+    private static final ClassValue<Map<String, Optional<FieldAccessor>>> FIELD_CACHE = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<FieldAccessor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    
+    private static final ClassValue<Map<String, Optional<FieldAccessor>>> PROPERTY_CACHE = new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<FieldAccessor>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+    
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(FieldAccessor.class);
+    private static final MethodType GET_TYPE = MethodType.methodType(Object.class, Object.class);
+    
+    private FieldAccessors() {
+    }
+    
+    public static FieldAccessor forField(Class<?> type, String fieldName) {
+        return FIELD_CACHE.get(type).computeIfAbsent(fieldName, name -> Optional.ofNullable(resolveField(type, name))).orElse(null);
+    }
+    
+    public static FieldAccessor forProperty(Class<?> type, String fieldName) {
+        return PROPERTY_CACHE.get(type).computeIfAbsent(fieldName, name -> Optional.ofNullable(resolveProperty(type, name))).orElse(null);
+    }
+    
+    public static FieldAccessor[] forFields(Class<?> type, String[] fieldNames, boolean preferGetters) {
+        FieldAccessor[] accessors = new FieldAccessor[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            accessors[i] = preferGetters ? forProperty(type, fieldNames[i]) : forField(type, fieldNames[i]);
+        }
+        return accessors;
+    }
+    
+    static FieldAccessor resolveProperty(Class<?> type, String fieldName) {
+        Method getter = findGetter(type, fieldName);
+        if (getter != null) {
+            try {
+                return lambdaAccessor(getter);
+            } catch (Throwable e) {
+                // fall back to field access
+            }
+        }
+        return forField(type, fieldName);
+    }
+    
+    static FieldAccessor resolveField(Class<?> type, String fieldName) {
+        Field field = findField(type, fieldName);
+        if (field == null) {
+            return null;
+        }
+        try {
+            return methodHandleAccessor(field);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return reflectionAccessor(field);
+        }
+    }
+    
+    static FieldAccessor lambdaAccessor(Method getter) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(getter.getDeclaringClass(), MethodHandles.lookup());
+        MethodHandle handle = lookup.unreflect(getter);
+        CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", ACCESSOR_TYPE, GET_TYPE,
+                handle, handle.type().wrap());
+        return (FieldAccessor) callSite.getTarget().invokeExact();
+    }
+    
+    static FieldAccessor methodHandleAccessor(Field field) throws IllegalAccessException {
+        MethodHandle handle = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup())
+                .unreflectGetter(field)
+                .asType(GET_TYPE);
+        return target -> {
+            try {
+                return handle.invokeExact(target);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to read field " + field.getName(), e);
+            }
+        };
+    }
+    
+    static FieldAccessor reflectionAccessor(Field field) {
+        field.setAccessible(true);
+        return target -> {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to read field " + field.getName(), e);
+            }
+        };
+    }
+    
+    static Method findGetter(Class<?> type, String fieldName) {
+        String suffix = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        for (String name : new String[] {"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class
+                        && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try next candidate
+            }
+        }
+        return null;
+    }
+    
+    static Field findField(Class<?> type, String fieldName) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(fieldName);
+            } catch (NoSuchFieldException e) {
+                // keep walking up
+            }
+        }
+        return null;
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.excelexport.service;
 
 import com.example.excelexport.model.ExportRequest;
+import com.example.excelexport.model.JsonFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +30,42 @@ public abstract class JsonExportService<T> extends ExportService<T> {
         return generateJson(data);
     }
     
+    /**
+     * Writes the rows straight to {@code outputStream} as they are read, so neither the document nor
+     * the full result set is held in memory. The stream is not closed.
+     */
+    public void exportToJson(ExportRequest request, OutputStream outputStream, JsonFormat format) {
+        if (!getSupportedExportType().equals(request.getTypeExport())) {
+            throw new IllegalArgumentException("Unsupported export type: " + request.getTypeExport());
+        }
+        
+        consumeData(request.getParamFilter(), rows -> writeJson(rows, outputStream, format));
+    }
+    
+    protected void writeJson(Iterator<T> data, OutputStream outputStream, JsonFormat format) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (format == JsonFormat.NDJSON) {
+                // lines are ended below; the default separator would put a space before each
+                generator.setRootValueSeparator(null);
+                while (data.hasNext()) {
+                    generator.writeObject(data.next());
+                    generator.writeRaw('\n');
+                }
+                return;
+            }
+            
+            generator.writeStartArray();
+            while (data.hasNext()) {
+                generator.writeObject(data.next());
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            logger.error("Failed to write JSON", e);
+            throw new RuntimeException("Failed to write JSON", e);
+        }
+    }
+    
     protected String generateJson(List<T> data) {
         try {
             return objectMapper.writeValueAsString(data);
@@ -38,7 +80,7 @@ public abstract class JsonExportService<T> extends ExportService<T> {
     }
     
     @Override
-    protected byte[] generateExcel(List<T> data, Map<String, String> headers) {
+    protected byte[] generateExcel(Iterator<T> data, Map<String, String> headers) {
         throw new UnsupportedOperationException("Excel generation not supported in JsonExportService");
     }
     
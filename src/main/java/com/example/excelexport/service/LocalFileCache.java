@@ -0,0 +1,273 @@
+package com.example.excelexport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Node-local copies of recently written or downloaded export files, so repeated downloads are served
+ * from disk instead of MinIO. Entries are evicted least recently used first once the files exceed
+ * {@code max-bytes}, and dropped after {@code ttl-minutes}. The directory is cleared on startup since
+ * the index lives in memory.
+ */
+@Component
+public class LocalFileCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LocalFileCache.class);
+    
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final ExportMetrics exportMetrics;
+    private long totalBytes;
+    
+    public LocalFileCache(@Value("${app.export.local-cache.enabled:true}") boolean enabled,
+                          @Value("${app.export.local-cache.directory:${java.io.tmpdir}/export-cache}") String directory,
+                          @Value("${app.export.local-cache.max-bytes:1073741824}") long maxBytes,
+                          @Value("${app.export.local-cache.ttl-minutes:30}") long ttlMinutes,
+                          ExportMetrics exportMetrics) {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMinutes * 60 * 1000;
+        this.exportMetrics = exportMetrics;
+        this.enabled = enabled && prepareDirectory();
+    }
+    
+    private static class Entry {
+        private final Path file;
+        private final long size;
+        private final long cachedAt = System.currentTimeMillis();
+        
+        Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+    
+    /**
+     * Opens the cached copy of an object, or returns null on a miss. The channel stays readable even
+     * if the entry is evicted while it is being served.
+     */
+    public FileChannel open(String objectPath) {
+        if (!enabled) {
+            return null;
+        }
+        Path file;
+        synchronized (this) {
+            Entry entry = entries.get(objectPath);
+            if (entry != null && System.currentTimeMillis() - entry.cachedAt > ttlMillis) {
+                remove(objectPath);
+                entry = null;
+            }
+            file = entry != null ? entry.file : null;
+        }
+        if (file != null) {
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                exportMetrics.recordLocalCacheLookup(true);
+                return channel;
+            } catch (IOException e) {
+                logger.warn("Cached file unreadable, dropping it: {}", objectPath, e);
+                synchronized (this) {
+                    remove(objectPath);
+                }
+            }
+        }
+        exportMetrics.recordLocalCacheLookup(false);
+        return null;
+    }
+    
+    public void put(String objectPath, byte[] content) {
+        CacheFile cacheFile = begin(objectPath);
+        try (OutputStream out = cacheFile.wrap(OutputStream.nullOutputStream())) {
+            out.write(content);
+        } catch (IOException e) {
+            cacheFile.abort();
+            return;
+        }
+        cacheFile.commit();
+    }
+    
+    /**
+     * Starts a copy that is written alongside another stream and only becomes visible on
+     * {@link CacheFile#commit()}. Never null; when the cache is off the copy does nothing.
+     */
+    public CacheFile begin(String objectPath) {
+        if (!enabled) {
+            return new CacheFile(objectPath, null, null);
+        }
+        try {
+            Path tempFile = Files.createTempFile(directory, "cache", ".part");
+            return new CacheFile(objectPath, tempFile, Files.newOutputStream(tempFile));
+        } catch (IOException e) {
+            logger.warn("Could not start local cache file for {}: {}", objectPath, e.getMessage());
+            return new CacheFile(objectPath, null, null);
+        }
+    }
+    
+    public synchronized void invalidate(Collection<String> objectPaths) {
+        for (String objectPath : objectPaths) {
+            remove(objectPath);
+        }
+    }
+    
+    /**
+     * Copy of one object in progress. A failure to write the copy only stops the copy; the stream it
+     * was written alongside is never affected.
+     */
+    public class CacheFile {
+        
+        private final String objectPath;
+        private final Path tempFile;
+        private OutputStream out;
+        private long size;
+        
+        CacheFile(String objectPath, Path tempFile, OutputStream out) {
+            this.objectPath = objectPath;
+            this.tempFile = tempFile;
+            this.out = out;
+        }
+        
+        /**
+         * Returns a stream writing to {@code target} and to this copy.
+         */
+        public OutputStream wrap(OutputStream target) {
+            if (out == null) {
+                return target;
+            }
+            return new FilterOutputStream(target) {
+                @Override
+                public void write(int b) throws IOException {
+                    super.out.write(b);
+                    append(new byte[]{(byte) b}, 0, 1);
+                }
+                
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    super.out.write(b, off, len);
+                    append(b, off, len);
+                }
+            };
+        }
+        
+        /**
+         * Makes the copy visible, unless writing it failed or it is larger than the whole cache.
+         */
+        public void commit() {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.close();
+                out = null;
+                if (size > maxBytes) {
+                    Files.deleteIfExists(tempFile);
+                    return;
+                }
+                Path file = directory.resolve(UUID.nameUUIDFromBytes(objectPath.getBytes(StandardCharsets.UTF_8)) + ".bin");
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                index(objectPath, file, size);
+            } catch (IOException e) {
+                logger.warn("Could not commit local cache file for {}: {}", objectPath, e.getMessage());
+                abort();
+            }
+        }
+        
+        /**
+         * Discards the copy; does nothing after a commit.
+         */
+        public void abort() {
+            if (tempFile == null) {
+                return;
+            }
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                logger.warn("Could not delete local cache file {}: {}", tempFile, e.getMessage());
+            }
+        }
+        
+        private void append(byte[] b, int off, int len) {
+            if (out == null) {
+                return;
+            }
+            try {
+                out.write(b, off, len);
+                size += len;
+            } catch (IOException e) {
+                logger.warn("Local cache copy of {} failed: {}", objectPath, e.getMessage());
+                abort();
+            }
+        }
+    }
+    
+    private synchronized void index(String objectPath, Path file, long size) {
+        Entry previous = entries.put(objectPath, new Entry(file, size));
+        if (previous != null) {
+            // same object, same file name: the move already replaced it
+            totalBytes -= previous.size;
+        }
+        totalBytes += size;
+        
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.size;
+            deleteQuietly(eldest.file);
+        }
+    }
+    
+    private void remove(String objectPath) {
+        Entry entry = entries.remove(objectPath);
+        if (entry != null) {
+            totalBytes -= entry.size;
+            deleteQuietly(entry.file);
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete local cache file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private boolean prepareDirectory() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(this::deleteQuietly);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Local file cache disabled, directory unusable: {} ({})", directory, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -1,34 +1,74 @@
 package com.example.excelexport.service;
 
+import com.example.excelexport.model.JsonFormat;
+import com.example.excelexport.model.UploadedFile;
+import io.micrometer.core.instrument.Timer;
 import io.minio.*;
 import io.minio.errors.*;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class MinioService {
     
     private static final Logger logger = LoggerFactory.getLogger(MinioService.class);
     
+    private static final String EXCEL_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_DELETE_BATCH_SIZE = 1000;
+    
     private final MinioClient minioClient;
     private final String bucketName;
+    private final long partSize;
+    private final ExportMetrics exportMetrics;
+    private final PresignedUrlCache presignedUrlCache;
+    private final LocalFileCache localFileCache;
+    private final ExecutorService uploadExecutor = Executors.newCachedThreadPool(new UploadThreadFactory());
     
     public MinioService(@Value("${minio.endpoint}") String endpoint,
                        @Value("${minio.access-key}") String accessKey,
                        @Value("${minio.secret-key}") String secretKey,
-                       @Value("${minio.bucket-name}") String bucketName) {
+                       @Value("${minio.bucket-name}") String bucketName,
+                       @Value("${minio.part-size:5242880}") long partSize,
+                       ExportMetrics exportMetrics,
+                       PresignedUrlCache presignedUrlCache,
+                       LocalFileCache localFileCache) {
         this.bucketName = bucketName;
+        this.partSize = partSize;
+        this.exportMetrics = exportMetrics;
+        this.presignedUrlCache = presignedUrlCache;
+        this.localFileCache = localFileCache;
         this.minioClient = MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
@@ -60,12 +100,16 @@ public class MinioService {
             String fileName = generateFileName(requestId, exportType);
             String objectPath = "exports/" + fileName;
             
+            Timer.Sample upload = exportMetrics.startPhase();
             minioClient.putObject(PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(objectPath)
                     .stream(new ByteArrayInputStream(fileData), fileData.length, -1)
-                    .contentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                    .contentType(EXCEL_CONTENT_TYPE)
                     .build());
+            exportMetrics.endPhase(upload, exportType, ExportMetrics.PHASE_UPLOAD);
+            exportMetrics.recordBytes(exportType, fileData.length);
+            localFileCache.put(objectPath, fileData);
             
             logger.info("Successfully uploaded file: {} to MinIO", objectPath);
             return objectPath;
@@ -76,18 +120,98 @@ public class MinioService {
         }
     }
     
+    /**
+     * Streams the writer's output into a multipart upload of unknown size. The writer runs on the
+     * calling thread (so it keeps any open transaction) while the upload reads from a pipe on an
+     * upload thread; only one part of {@code minio.part-size} bytes is buffered at a time. The upload
+     * overlaps rendering, so only the wait after the writer finishes is recorded as upload time.
+     */
+    public UploadedFile uploadFile(String requestId, String exportType, ExportContentWriter writer) {
+        return uploadStream(requestId, exportType, "exports/" + generateFileName(requestId, exportType),
+                EXCEL_CONTENT_TYPE, writer);
+    }
+    
+    /**
+     * Streams a JSON export the same way as {@link #uploadFile(String, String, ExportContentWriter)},
+     * so the document is never materialized as a string or byte array.
+     */
+    public UploadedFile uploadJsonFile(String requestId, String exportType, JsonFormat format, ExportContentWriter writer) {
+        return uploadStream(requestId, exportType, "json-exports/" + generateJsonFileName(requestId, exportType, format),
+                format.getContentType(), writer);
+    }
+    
+    private UploadedFile uploadStream(String requestId, String exportType, String objectPath, String contentType,
+                                      ExportContentWriter writer) {
+        LocalFileCache.CacheFile cacheFile = localFileCache.begin(objectPath);
+        try {
+            PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+            CountingOutputStream outputStream = new CountingOutputStream(new PipedOutputStream(inputStream));
+            
+            Future<?> upload = uploadExecutor.submit(() -> {
+                try (InputStream in = inputStream) {
+                    minioClient.putObject(PutObjectArgs.builder()
+                            .bucket(bucketName)
+                            .object(objectPath)
+                            .stream(in, -1, partSize)
+                            .contentType(contentType)
+                            .build());
+                }
+                return null;
+            });
+            
+            // the local copy sits behind the buffer so it is written in the same chunks as the pipe
+            OutputStream out = new BufferedOutputStream(cacheFile.wrap(outputStream), PIPE_BUFFER_SIZE);
+            try {
+                writer.write(out);
+                out.close();
+            } catch (Exception e) {
+                // never close the write side here: the upload would see EOF and commit a truncated object
+                if (!upload.cancel(true)) {
+                    upload.get();
+                }
+                inputStream.close();
+                throw e;
+            }
+            Timer.Sample uploadTail = exportMetrics.startPhase();
+            upload.get();
+            exportMetrics.endPhase(uploadTail, exportType, ExportMetrics.PHASE_UPLOAD);
+            exportMetrics.recordBytes(exportType, outputStream.getCount());
+            cacheFile.commit();
+            
+            logger.info("Successfully streamed file: {} to MinIO ({} bytes)", objectPath, outputStream.getCount());
+            return new UploadedFile(objectPath, outputStream.getCount());
+            
+        } catch (ExecutionException e) {
+            logger.error("Failed to upload file to MinIO for request: {}", requestId, e.getCause());
+            throw new RuntimeException("Failed to upload file to MinIO", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while uploading file to MinIO", e);
+        } catch (Exception e) {
+            logger.error("Failed to upload file to MinIO for request: {}", requestId, e);
+            throw new RuntimeException("Failed to upload file to MinIO", e);
+        } finally {
+            // no-op once committed
+            cacheFile.abort();
+        }
+    }
+    
     public String uploadJsonFile(String requestId, String exportType, String jsonData) {
         try {
-            String fileName = generateJsonFileName(requestId, exportType);
+            String fileName = generateJsonFileName(requestId, exportType, JsonFormat.ARRAY);
             String objectPath = "json-exports/" + fileName;
             byte[] jsonBytes = jsonData.getBytes("UTF-8");
             
+            Timer.Sample upload = exportMetrics.startPhase();
             minioClient.putObject(PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(objectPath)
                     .stream(new ByteArrayInputStream(jsonBytes), jsonBytes.length, -1)
-                    .contentType("application/json")
+                    .contentType(JsonFormat.ARRAY.getContentType())
                     .build());
+            exportMetrics.endPhase(upload, exportType, ExportMetrics.PHASE_UPLOAD);
+            exportMetrics.recordBytes(exportType, jsonBytes.length);
+            localFileCache.put(objectPath, jsonBytes);
             
             logger.info("Successfully uploaded JSON file: {} to MinIO", objectPath);
             return objectPath;
@@ -100,15 +224,19 @@ public class MinioService {
     
     public String uploadJsonFile(String requestId, String exportType, byte[] jsonData) {
         try {
-            String fileName = generateJsonFileName(requestId, exportType);
+            String fileName = generateJsonFileName(requestId, exportType, JsonFormat.ARRAY);
             String objectPath = "json-exports/" + fileName;
             
+            Timer.Sample upload = exportMetrics.startPhase();
             minioClient.putObject(PutObjectArgs.builder()
                     .bucket(bucketName)
                     .object(objectPath)
                     .stream(new ByteArrayInputStream(jsonData), jsonData.length, -1)
-                    .contentType("application/json")
+                    .contentType(JsonFormat.ARRAY.getContentType())
                     .build());
+            exportMetrics.endPhase(upload, exportType, ExportMetrics.PHASE_UPLOAD);
+            exportMetrics.recordBytes(exportType, jsonData.length);
+            localFileCache.put(objectPath, jsonData);
             
             logger.info("Successfully uploaded JSON file: {} to MinIO", objectPath);
             return objectPath;
@@ -131,18 +259,85 @@ public class MinioService {
         }
     }
     
+    /**
+     * Opens the object, or one byte range of it, with a single GET whose headers carry
+     * Content-Length, Content-Range and ETag. Returns null if the object does not exist.
+     *
+     * @throws RangeNotSatisfiableException when the range cannot be satisfied
+     */
+    public GetObjectResponse openFile(String filePath, HttpRange range) {
+        GetObjectArgs.Builder args = GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(filePath);
+        if (range != null) {
+            // passed through as-is so MinIO resolves suffix ranges against the object size
+            args.extraHeaders(Map.of("Range", HttpRange.toString(List.of(range))));
+        }
+        try {
+            return minioClient.getObject(args.build());
+        } catch (ErrorResponseException e) {
+            String code = e.errorResponse().code();
+            if ("NoSuchKey".equals(code)) {
+                return null;
+            }
+            if ("InvalidRange".equals(code)) {
+                throw new RangeNotSatisfiableException("Requested range not satisfiable: " + range, e);
+            }
+            logger.error("Failed to open file from MinIO: {}", filePath, e);
+            throw new RuntimeException("Failed to download file from MinIO", e);
+        } catch (Exception e) {
+            logger.error("Failed to open file from MinIO: {}", filePath, e);
+            throw new RuntimeException("Failed to download file from MinIO", e);
+        }
+    }
+    
     public void deleteFile(String filePath) {
         try {
             minioClient.removeObject(RemoveObjectArgs.builder()
                     .bucket(bucketName)
                     .object(filePath)
                     .build());
+            presignedUrlCache.invalidate(List.of(filePath));
+            localFileCache.invalidate(List.of(filePath));
             logger.info("Successfully deleted file: {} from MinIO", filePath);
         } catch (Exception e) {
             logger.error("Failed to delete file from MinIO: {}", filePath, e);
         }
     }
     
+    /**
+     * Deletes the given objects with multi-object delete requests of at most 1000 keys each.
+     * Missing objects count as deleted. Returns the paths that could not be deleted.
+     */
+    public Set<String> deleteFiles(List<String> filePaths) {
+        Set<String> failedPaths = new HashSet<>();
+        for (int from = 0; from < filePaths.size(); from += MAX_DELETE_BATCH_SIZE) {
+            List<String> batch = filePaths.subList(from, Math.min(from + MAX_DELETE_BATCH_SIZE, filePaths.size()));
+            List<DeleteObject> objects = new ArrayList<>(batch.size());
+            for (String filePath : batch) {
+                objects.add(new DeleteObject(filePath));
+            }
+            
+            try {
+                Iterable<Result<DeleteError>> results = minioClient.removeObjects(RemoveObjectsArgs.builder()
+                        .bucket(bucketName)
+                        .objects(objects)
+                        .build());
+                for (Result<DeleteError> result : results) {
+                    DeleteError error = result.get();
+                    logger.error("Failed to delete file from MinIO: {} ({})", error.objectName(), error.message());
+                    failedPaths.add(error.objectName());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to delete batch of {} files from MinIO", batch.size(), e);
+                failedPaths.addAll(batch);
+            }
+        }
+        presignedUrlCache.invalidate(filePaths);
+        localFileCache.invalidate(filePaths);
+        return failedPaths;
+    }
+    
     public boolean fileExists(String filePath) {
         try {
             minioClient.statObject(StatObjectArgs.builder()
@@ -155,7 +350,15 @@ public class MinioService {
         }
     }
     
+    /**
+     * Served from {@link PresignedUrlCache}; the URL may have been signed earlier, but at least
+     * {@code min-remaining-fraction} of the requested expiry is left on it.
+     */
     public String getFileUrl(String filePath, int expiryInSeconds) {
+        return presignedUrlCache.get(filePath, expiryInSeconds, expiry -> signFileUrl(filePath, expiry));
+    }
+    
+    private String signFileUrl(String filePath, int expiryInSeconds) {
         try {
             return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
                     .method(Method.GET)
@@ -174,9 +377,51 @@ public class MinioService {
         return String.format("%s_%s_%s.xlsx", exportType.toLowerCase(), requestId, timestamp);
     }
     
-    private String generateJsonFileName(String requestId, String exportType) {
+    private String generateJsonFileName(String requestId, String exportType, JsonFormat format) {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        return String.format("%s_%s_%s.json", exportType.toLowerCase(), requestId, timestamp);
+        return String.format("%s_%s_%s.%s", exportType.toLowerCase(), requestId, timestamp, format.getExtension());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+    
+    private static class CountingOutputStream extends FilterOutputStream {
+        
+        private long count;
+        
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+    
+    private static class UploadThreadFactory implements ThreadFactory {
+        
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "minio-upload-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
 
@@ -0,0 +1,87 @@
+package com.example.excelexport.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded LRU of presigned GET URLs keyed by object and expiry bucket. Requested expiries are rounded
+ * up to whole minutes so near-identical requests share an entry. A URL is handed out again until less
+ * than {@code min-remaining-fraction} of its lifetime is left, so callers always get at least that share
+ * of the expiry they asked for without re-signing on every poll.
+ */
+@Component
+public class PresignedUrlCache {
+    
+    private static final int EXPIRY_BUCKET_SECONDS = 60;
+    private static final int MAX_EXPIRY_SECONDS = 7 * 24 * 60 * 60;
+    
+    private final Map<String, CachedUrl> urls;
+    private final double minRemainingFraction;
+    private final ExportMetrics exportMetrics;
+    
+    public PresignedUrlCache(@Value("${minio.presigned-url-cache.max-size:10000}") int maxSize,
+                             @Value("${minio.presigned-url-cache.min-remaining-fraction:0.5}") double minRemainingFraction,
+                             ExportMetrics exportMetrics) {
+        this.minRemainingFraction = minRemainingFraction;
+        this.exportMetrics = exportMetrics;
+        this.urls = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+    
+    private static class CachedUrl {
+        private final String url;
+        private final long expiresAt;
+        
+        CachedUrl(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    /**
+     * @param signer signs a URL for the bucketed expiry it is given, in seconds
+     */
+    public String get(String objectPath, int expirySeconds, IntFunction<String> signer) {
+        int expiry = expiryBucket(expirySeconds);
+        String key = objectPath + "|" + expiry;
+        long now = System.currentTimeMillis();
+        
+        CachedUrl cached = urls.get(key);
+        if (cached != null && cached.expiresAt - now >= expiry * 1000L * minRemainingFraction) {
+            exportMetrics.recordPresignedUrlLookup(true);
+            return cached.url;
+        }
+        
+        exportMetrics.recordPresignedUrlLookup(false);
+        String url = signer.apply(expiry);
+        urls.put(key, new CachedUrl(url, now + expiry * 1000L));
+        return url;
+    }
+    
+    /**
+     * Drops every URL for the given objects, e.g. after they were deleted.
+     */
+    public void invalidate(Collection<String> objectPaths) {
+        Set<String> paths = new HashSet<>(objectPaths);
+        synchronized (urls) {
+            urls.keySet().removeIf(key -> paths.contains(key.substring(0, key.lastIndexOf('|'))));
+        }
+    }
+    
+    private static int expiryBucket(int expirySeconds) {
+        int rounded = (expirySeconds + EXPIRY_BUCKET_SECONDS - 1) / EXPIRY_BUCKET_SECONDS * EXPIRY_BUCKET_SECONDS;
+        return Math.min(Math.max(rounded, EXPIRY_BUCKET_SECONDS), MAX_EXPIRY_SECONDS);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.excelexport.service;
+
+/**
+ * A requested byte range lies outside the file; answered with 416.
+ */
+public class RangeNotSatisfiableException extends RuntimeException {
+    
+    public RangeNotSatisfiableException(String message) {
+        super(message);
+    }
+    
+    public RangeNotSatisfiableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
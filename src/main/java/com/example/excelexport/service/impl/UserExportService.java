@@ -5,12 +5,16 @@ import com.example.excelexport.repository.UserRepository;
 import com.example.excelexport.service.ExcelGenerator;
 import com.example.excelexport.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.lang.reflect.Field;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class UserExportService extends ExportService<User> {
@@ -21,6 +25,12 @@ public class UserExportService extends ExportService<User> {
     @Autowired
     private ExcelGenerator excelGenerator;
     
+    @Value("${app.export.user.streaming-enabled:true}")
+    private boolean streamingEnabled;
+    
+    @Value("${app.export.user.streaming-query-enabled:true}")
+    private boolean streamingQueryEnabled;
+    
     @Override
     public String getSupportedExportType() {
         return "USER";
@@ -37,6 +47,27 @@ public class UserExportService extends ExportService<User> {
         return userRepository.findAll();
     }
     
+    @Override
+    public Stream<User> streamData(Map<String, Object> paramFilter) {
+        if (paramFilter.containsKey("status")) {
+            return userRepository.streamByStatus((String) paramFilter.get("status"));
+        }
+        if (paramFilter.containsKey("department")) {
+            return userRepository.streamByDepartment((String) paramFilter.get("department"));
+        }
+        return userRepository.streamAll();
+    }
+    
+    /**
+     * Row count and highest id catch inserts and deletes; in-place updates are only picked up once
+     * the cached result's TTL runs out.
+     */
+    @Override
+    public String getDataVersion(Map<String, Object> paramFilter) {
+        UserRepository.TableVersion version = userRepository.findTableVersion();
+        return version.getRowCount() + ":" + version.getMaxId();
+    }
+    
     @Override
     public Map<String, String> generateHeaders(List<User> data) {
         Map<String, String> headers = new LinkedHashMap<>();
@@ -56,19 +87,23 @@ public class UserExportService extends ExportService<User> {
     }
     
     @Override
-    public Object extractFieldValue(User item, String fieldName) {
-        try {
-            Field field = item.getClass().getDeclaredField(fieldName);
-            field.setAccessible(true);
-            return field.get(item);
-        } catch (Exception e) {
-            return null;
-        }
+    protected byte[] generateExcel(Iterator<User> data, Map<String, String> headers) {
+        return excelGenerator.generateExcel(data, headers, this, isStreamingEnabled());
+    }
+    
+    @Override
+    protected void writeExcel(Iterator<User> data, Map<String, String> headers, OutputStream outputStream) {
+        excelGenerator.writeExcel(data, headers, this, isStreamingEnabled(), outputStream);
     }
     
     @Override
-    protected byte[] generateExcel(List<User> data, Map<String, String> headers) {
-        return excelGenerator.generateExcel(data, headers, this);
+    protected boolean isStreamingEnabled() {
+        return streamingEnabled;
+    }
+    
+    @Override
+    protected boolean isStreamingQueryEnabled() {
+        return streamingQueryEnabled;
     }
     
     @Override
@@ -76,6 +111,11 @@ public class UserExportService extends ExportService<User> {
         return excelGenerator.createEmptyExcel();
     }
     
+    @Override
+    protected void writeEmptyExcel(OutputStream outputStream) {
+        excelGenerator.writeEmptyExcel(outputStream);
+    }
+    
     private String convertToHeaderLabel(String fieldName) {
         return fieldName.replaceAll("([a-z])([A-Z])", "$1 $2")
                        .toUpperCase()
@@ -1,5 +1,7 @@
+CREATE SEQUENCE IF NOT EXISTS export_history_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS export_history (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     request_id VARCHAR(255) UNIQUE NOT NULL,
     time_request TIMESTAMP NOT NULL,
     export_type VARCHAR(100) NOT NULL,
@@ -10,11 +12,17 @@ CREATE TABLE IF NOT EXISTS export_history (
     file_name VARCHAR(255),
     completed_time TIMESTAMP,
     error_message TEXT,
-    file_size BIGINT
+    file_size BIGINT,
+    cache_key VARCHAR(64)
 );
 
 CREATE INDEX IF NOT EXISTS idx_export_history_request_id ON export_history(request_id);
 CREATE INDEX IF NOT EXISTS idx_export_history_type ON export_history(export_type);
 CREATE INDEX IF NOT EXISTS idx_export_history_status ON export_history(status);
 CREATE INDEX IF NOT EXISTS idx_export_history_time ON export_history(time_request);
+CREATE INDEX IF NOT EXISTS idx_export_history_time_id ON export_history(time_request DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_export_history_type_time_id ON export_history(export_type, time_request DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_export_history_type_status_time_id ON export_history(export_type, status, time_request DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_export_history_status_time_id ON export_history(status, time_request DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_export_history_cache_key ON export_history(cache_key, status, completed_time DESC);
 
@@ -0,0 +1,41 @@
+package com.example.excelexport.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryCursorTest {
+    
+    @Test
+    public void testRoundTrip() {
+        LocalDateTime timeRequest = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        
+        HistoryCursor decoded = HistoryCursor.decode(new HistoryCursor(timeRequest, 4711L).encode());
+        
+        assertEquals(timeRequest, decoded.getTimeRequest());
+        assertEquals(4711L, decoded.getId());
+    }
+    
+    @Test
+    public void testTokenIsUrlSafe() {
+        String cursor = new HistoryCursor(LocalDateTime.of(2024, 3, 1, 0, 0), Long.MAX_VALUE).encode();
+        
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+    }
+    
+    @Test
+    public void testRejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("2024-03-01T00:00")));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("yesterday|1")));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode(encode("2024-03-01T00:00|x")));
+    }
+    
+    private String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.excelexport.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ByteRangeTest {
+    
+    @Test
+    public void testParseSingleRange() {
+        HttpRange range = ByteRange.parse("bytes=10-19");
+        
+        assertNotNull(range);
+        assertEquals(10, range.getRangeStart(100));
+        assertEquals(19, range.getRangeEnd(100));
+    }
+    
+    @Test
+    public void testParseFallsBackToWholeFile() {
+        assertNull(ByteRange.parse(null));
+        assertNull(ByteRange.parse("bytes=0-1,5-9"));
+        assertNull(ByteRange.parse("items=0-9"));
+        assertNull(ByteRange.parse("bytes=9-1"));
+    }
+    
+    @Test
+    public void testResolveClampsToFileLength() {
+        ByteRange range = ByteRange.resolve(ByteRange.parse("bytes=90-"), 100);
+        
+        assertEquals(90, range.getStart());
+        assertEquals(99, range.getEnd());
+        assertEquals(10, range.getCount());
+        assertEquals("bytes 90-99/100", range.toContentRange());
+    }
+    
+    @Test
+    public void testResolveSuffixRange() {
+        ByteRange range = ByteRange.resolve(ByteRange.parse("bytes=-30"), 100);
+        
+        assertEquals(70, range.getStart());
+        assertEquals(99, range.getEnd());
+        
+        ByteRange whole = ByteRange.resolve(ByteRange.parse("bytes=-500"), 100);
+        assertEquals(0, whole.getStart());
+        assertEquals(100, whole.getCount());
+    }
+    
+    @Test
+    public void testResolveRejectsRangePastEndOfFile() {
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> ByteRange.resolve(ByteRange.parse("bytes=100-199"), 100));
+        assertThrows(RangeNotSatisfiableException.class,
+                () -> ByteRange.resolve(ByteRange.parse("bytes=0-"), 0));
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes 1M rows and compares heap after forced GCs, which takes about a minute; tagged {@code slow} so it
+ * only runs with {@code mvn test -Pslow-tests}.
+ */
+@Tag("slow")
+public class ExcelGeneratorStreamingTest {
+    
+    private static final long HEAP_CEILING_BYTES = 64L * 1024 * 1024;
+    
+    @Test
+    public void testStreamingHeapStaysFlatFrom10kTo1mRows() {
+        ExcelGenerator excelGenerator = new ExcelGenerator();
+        ReflectionTestUtils.setField(excelGenerator, "rowWindowSize", 100);
+        ReflectionTestUtils.setField(excelGenerator, "autoSizeSampleRows", 500);
+        ReflectionTestUtils.setField(excelGenerator, "exportMetrics", new ExportMetrics(new SimpleMeterRegistry()));
+        
+        long heapAt10k = measureHeapWhileWriting(excelGenerator, 10_000);
+        long heapAt1m = measureHeapWhileWriting(excelGenerator, 1_000_000);
+        
+        assertTrue(heapAt1m - heapAt10k < HEAP_CEILING_BYTES,
+                "Heap grew by " + (heapAt1m - heapAt10k) / (1024 * 1024) + " MB between 10k and 1M rows");
+    }
+    
+    private long measureHeapWhileWriting(ExcelGenerator excelGenerator, int rowCount) {
+        UserExportStub exportService = new UserExportStub();
+        GeneratedUserList data = new GeneratedUserList(rowCount);
+        
+        byte[] excel = excelGenerator.generateExcel(data.iterator(), exportService.headers(), exportService, true);
+        
+        assertTrue(excel.length > 0);
+        return data.heapAtLastRow;
+    }
+    
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private static class GeneratedUserList extends AbstractList<User> {
+        
+        private final int size;
+        private long heapAtLastRow;
+        
+        GeneratedUserList(int size) {
+            this.size = size;
+        }
+        
+        @Override
+        public User get(int index) {
+            if (index == size - 1) {
+                heapAtLastRow = usedHeapAfterGc();
+            }
+            User user = new User("user" + index, "user" + index + "@company.com", "User " + index,
+                    "IT", "ACTIVE", 50000.0 + index);
+            user.setId((long) index);
+            return user;
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+    
+    private static class UserExportStub extends ExportService<User> {
+        
+        Map<String, String> headers() {
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("id", "ID");
+            headers.put("username", "USERNAME");
+            headers.put("email", "EMAIL");
+            headers.put("fullName", "FULL NAME");
+            headers.put("department", "DEPARTMENT");
+            headers.put("status", "STATUS");
+            headers.put("salary", "SALARY");
+            return headers;
+        }
+        
+        @Override
+        public String getSupportedExportType() {
+            return "USER";
+        }
+        
+        @Override
+        public List<User> queryData(Map<String, Object> paramFilter) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<User> data) {
+            return headers();
+        }
+        
+        @Override
+        protected byte[] generateExcel(Iterator<User> data, Map<String, String> headers) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        protected byte[] createEmptyExcel() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
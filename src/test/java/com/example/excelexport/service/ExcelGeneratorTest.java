@@ -0,0 +1,112 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExcelGeneratorTest {
+    
+    private static final int USERNAME_COLUMN = 1;
+    
+    @Test
+    public void testStreamingColumnWidthsComeFromSampledRowsOnly() throws IOException {
+        assertTrue(usernameWidth(true, 3) < usernameWidth(true, 10));
+    }
+    
+    @Test
+    public void testInMemoryColumnWidthsComeFromSampledRowsOnly() throws IOException {
+        assertTrue(usernameWidth(false, 3) < usernameWidth(false, 10));
+    }
+    
+    @Test
+    public void testAllRowsAreWrittenPastTheSample() throws IOException {
+        ExcelGenerator excelGenerator = excelGenerator(3);
+        
+        byte[] excel = excelGenerator.generateExcel(users().iterator(), headers(), new UserExportStub(), true);
+        
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(excel))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(users().size(), sheet.getLastRowNum());
+            assertEquals(longUsername(), sheet.getRow(sheet.getLastRowNum()).getCell(USERNAME_COLUMN).getStringCellValue());
+        }
+    }
+    
+    /**
+     * Five short usernames followed by a long one.
+     */
+    private int usernameWidth(boolean streaming, int sampleRows) throws IOException {
+        byte[] excel = excelGenerator(sampleRows).generateExcel(users().iterator(), headers(), new UserExportStub(), streaming);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(excel))) {
+            return workbook.getSheetAt(0).getColumnWidth(USERNAME_COLUMN);
+        }
+    }
+    
+    private static ExcelGenerator excelGenerator(int sampleRows) {
+        ExcelGenerator excelGenerator = new ExcelGenerator();
+        ReflectionTestUtils.setField(excelGenerator, "rowWindowSize", 2);
+        ReflectionTestUtils.setField(excelGenerator, "autoSizeSampleRows", sampleRows);
+        ReflectionTestUtils.setField(excelGenerator, "exportMetrics", new ExportMetrics(new SimpleMeterRegistry()));
+        return excelGenerator;
+    }
+    
+    private static List<User> users() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(new User("u" + i, "u" + i + "@company.com", "User " + i, "IT", "ACTIVE", 50000.0));
+        }
+        users.add(new User(longUsername(), "long@company.com", "Long", "IT", "ACTIVE", 50000.0));
+        return users;
+    }
+    
+    private static String longUsername() {
+        return "a-username-long-enough-to-widen-its-column-well-past-the-header";
+    }
+    
+    private static Map<String, String> headers() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("id", "ID");
+        headers.put("username", "USERNAME");
+        return headers;
+    }
+    
+    private static class UserExportStub extends ExportService<User> {
+        
+        @Override
+        public String getSupportedExportType() {
+            return "USER";
+        }
+        
+        @Override
+        public List<User> queryData(Map<String, Object> paramFilter) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<User> data) {
+            return headers();
+        }
+        
+        @Override
+        protected byte[] generateExcel(Iterator<User> data, Map<String, String> headers) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        protected byte[] createEmptyExcel() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.entity.ExportHistory.ExportStatus;
+import com.example.excelexport.repository.ExportHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExportHistoryServiceTest {
+    
+    private final ExportHistoryRepository repository = mock(ExportHistoryRepository.class);
+    private final ExportHistoryService service = new ExportHistoryService();
+    
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(service, "exportHistoryRepository", repository);
+    }
+    
+    @Test
+    public void testProcessingOnlyFromPending() {
+        when(repository.transitionStatus("r1", EnumSet.of(ExportStatus.PENDING), ExportStatus.PROCESSING)).thenReturn(1);
+        
+        assertTrue(service.updateStatus("r1", ExportStatus.PROCESSING));
+        assertFalse(service.updateStatus("r2", ExportStatus.PROCESSING));
+    }
+    
+    @Test
+    public void testCompletedOnlyFromProcessingAndStampsCompletion() {
+        when(repository.transitionStatusCompletedAt(eq("r1"), eq(EnumSet.of(ExportStatus.PROCESSING)),
+                eq(ExportStatus.COMPLETED), any(LocalDateTime.class))).thenReturn(1);
+        
+        assertTrue(service.updateStatus("r1", ExportStatus.COMPLETED));
+        verify(repository, never()).transitionStatus(any(), any(), any());
+    }
+    
+    @Test
+    public void testNothingMovesBackToPending() {
+        assertFalse(service.updateStatus("r1", ExportStatus.PENDING));
+        verifyNoInteractions(repository);
+    }
+    
+    @Test
+    public void testFailureAllowedFromPendingOrProcessing() {
+        when(repository.transitionWithError(eq("r1"), eq(EnumSet.of(ExportStatus.PENDING, ExportStatus.PROCESSING)),
+                eq(ExportStatus.FAILED), eq("boom"), any(LocalDateTime.class))).thenReturn(1);
+        
+        assertTrue(service.updateWithError("r1", "boom"));
+    }
+    
+    @Test
+    public void testFileInfoOnlyCompletesProcessingExports() {
+        when(repository.transitionWithFileInfo(eq("r1"), eq(EnumSet.of(ExportStatus.PROCESSING)),
+                eq(ExportStatus.COMPLETED), eq("exports/a.xlsx"), eq("a.xlsx"), eq(10L), isNull(),
+                any(LocalDateTime.class))).thenReturn(1);
+        
+        assertTrue(service.updateWithFileInfo("r1", "exports/a.xlsx", "a.xlsx", 10L));
+        assertFalse(service.updateWithFileInfo("r2", "exports/b.xlsx", "b.xlsx", 10L));
+    }
+}
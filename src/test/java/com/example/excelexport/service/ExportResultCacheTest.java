@@ -0,0 +1,127 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.model.ExportRequest;
+import com.example.excelexport.model.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportResultCacheTest {
+    
+    private final ExportResultCache cache = enabledCache();
+    private final VersionedExportService exportService = new VersionedExportService();
+    
+    @Test
+    public void testKeyIgnoresFilterOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("status", "ACTIVE");
+        first.put("department", "IT");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("department", "IT");
+        second.put("status", "ACTIVE");
+        
+        assertEquals(key(first), key(second));
+    }
+    
+    @Test
+    public void testKeyIgnoresNullFiltersAtAnyDepth() {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("from", "2024-01-01");
+        nested.put("to", null);
+        Map<String, Object> withNulls = new HashMap<>();
+        withNulls.put("status", "ACTIVE");
+        withNulls.put("department", null);
+        withNulls.put("range", nested);
+        
+        Map<String, Object> withoutNulls = Map.of("status", "ACTIVE", "range", Map.of("from", "2024-01-01"));
+        
+        assertEquals(key(withoutNulls), key(withNulls));
+    }
+    
+    @Test
+    public void testKeyKeepsListOrder() {
+        assertNotEquals(key(Map.of("ids", List.of(1, 2))), key(Map.of("ids", List.of(2, 1))));
+    }
+    
+    @Test
+    public void testKeyDependsOnTypeFiltersVersionAndFormat() {
+        Map<String, Object> filters = Map.of("status", "ACTIVE");
+        String base = key(filters);
+        
+        assertNotEquals(base, key(Map.of("status", "INACTIVE")));
+        assertNotEquals(base, cache.cacheKey(exportService, new ExportRequest("OTHER", filters, "r")));
+        
+        ExportRequest json = new ExportRequest("USER", filters, "r");
+        json.setJsonFormat(JsonFormat.NDJSON);
+        assertNotEquals(base, cache.cacheKey(exportService, json));
+        
+        exportService.dataVersion = "v2";
+        assertNotEquals(base, key(filters));
+    }
+    
+    @Test
+    public void testKeyIsSha256Hex() {
+        assertTrue(key(Collections.emptyMap()).matches("[0-9a-f]{64}"));
+    }
+    
+    @Test
+    public void testNoKeyWhenDisabled() {
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        
+        assertNull(key(Map.of("status", "ACTIVE")));
+    }
+    
+    private String key(Map<String, Object> filters) {
+        return cache.cacheKey(exportService, new ExportRequest("USER", filters, "r"));
+    }
+    
+    private static ExportResultCache enabledCache() {
+        ExportResultCache cache = new ExportResultCache(null, new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        return cache;
+    }
+    
+    private static class VersionedExportService extends ExportService<Object> {
+        
+        private String dataVersion = "v1";
+        
+        @Override
+        public String getDataVersion(Map<String, Object> paramFilter) {
+            return dataVersion;
+        }
+        
+        @Override
+        public String getSupportedExportType() {
+            return "USER";
+        }
+        
+        @Override
+        public List<Object> queryData(Map<String, Object> paramFilter) {
+            return Collections.emptyList();
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<Object> data) {
+            return Collections.emptyMap();
+        }
+        
+        @Override
+        protected byte[] generateExcel(Iterator<Object> data, Map<String, String> headers) {
+            throw new UnsupportedOperationException();
+        }
+        
+        @Override
+        protected byte[] createEmptyExcel() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
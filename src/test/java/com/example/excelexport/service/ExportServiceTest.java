@@ -0,0 +1,139 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.model.ExportRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ExportServiceTest {
+    
+    private static final byte[] EMPTY_WORKBOOK = {0};
+    
+    private final List<String> events = new ArrayList<>();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final CursorExportService exportService = new CursorExportService();
+    
+    @BeforeEach
+    public void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            events.add("begin");
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> events.add("commit")).when(transactionManager).commit(any());
+        doAnswer(invocation -> events.add("clear")).when(entityManager).clear();
+        
+        ReflectionTestUtils.setField(exportService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(exportService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(exportService, "exportMetrics", new ExportMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(exportService, "clearInterval", 3);
+    }
+    
+    @Test
+    public void testCursorRowsArriveInOrderInsideReadOnlyTransaction() {
+        exportService.rows = 10;
+        
+        exportService.export(new ExportRequest("CURSOR", Map.of(), "r1"));
+        
+        assertEquals(List.of("begin", "open", "1", "2", "clear", "3", "4", "5", "clear", "6", "7", "8", "clear",
+                "9", "10", "close", "commit"), events);
+        assertEquals(Map.of("id", "Id"), exportService.headers);
+        assertReadOnlyTransaction();
+        assertEquals(0, exportService.queryDataCalls);
+    }
+    
+    @Test
+    public void testEmptyCursorWritesEmptyWorkbookInsideTransaction() {
+        exportService.rows = 0;
+        
+        byte[] content = exportService.export(new ExportRequest("CURSOR", Map.of(), "r1"));
+        
+        assertArrayEquals(EMPTY_WORKBOOK, content);
+        assertEquals(List.of("begin", "open", "close", "commit"), events);
+        assertReadOnlyTransaction();
+    }
+    
+    @Test
+    public void testConsumeDataClearsFromTheFirstRow() {
+        exportService.rows = 7;
+        
+        exportService.consumeRows();
+        
+        assertEquals(List.of("begin", "open", "1", "2", "clear", "3", "4", "5", "clear", "6", "7", "close", "commit"), events);
+        assertReadOnlyTransaction();
+    }
+    
+    private void assertReadOnlyTransaction() {
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        verify(transactionManager, never()).rollback(any());
+    }
+    
+    private class CursorExportService extends ExportService<Integer> {
+        
+        private int queryDataCalls;
+        private int rows;
+        private Map<String, String> headers;
+        
+        @Override
+        public String getSupportedExportType() {
+            return "CURSOR";
+        }
+        
+        @Override
+        public List<Integer> queryData(Map<String, Object> paramFilter) {
+            queryDataCalls++;
+            return List.of();
+        }
+        
+        @Override
+        public Stream<Integer> streamData(Map<String, Object> paramFilter) {
+            events.add("open");
+            return IntStream.rangeClosed(1, rows).boxed().onClose(() -> events.add("close"));
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<Integer> data) {
+            return Map.of("id", "Id");
+        }
+        
+        @Override
+        protected boolean isStreamingQueryEnabled() {
+            return true;
+        }
+        
+        @Override
+        protected byte[] generateExcel(Iterator<Integer> data, Map<String, String> headers) {
+            this.headers = headers;
+            data.forEachRemaining(row -> events.add(String.valueOf(row)));
+            return new byte[0];
+        }
+        
+        @Override
+        protected byte[] createEmptyExcel() {
+            return EMPTY_WORKBOOK;
+        }
+        
+        void consumeRows() {
+            consumeData(Map.of(), data -> data.forEachRemaining(row -> events.add(String.valueOf(row))));
+        }
+    }
+}
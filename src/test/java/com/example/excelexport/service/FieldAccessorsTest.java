@@ -0,0 +1,165 @@
+package com.example.excelexport.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldAccessorsTest {
+    
+    @Test
+    public void testReadsFieldEvenWhenGetterDerivesValue() {
+        FieldAccessor accessor = FieldAccessors.forField(Account.class, "name");
+        
+        assertEquals("stored", accessor.get(new Account("stored", true)));
+    }
+    
+    @Test
+    public void testPropertyPrefersPublicGetterOverField() {
+        FieldAccessor accessor = FieldAccessors.forProperty(Account.class, "name");
+        
+        assertEquals("getter:stored", accessor.get(new Account("stored", true)));
+    }
+    
+    @Test
+    public void testPropertyReadsBooleanIsGetter() {
+        FieldAccessor accessor = FieldAccessors.forProperty(Account.class, "active");
+        
+        assertEquals(Boolean.TRUE, accessor.get(new Account("a", true)));
+        assertEquals(Boolean.FALSE, accessor.get(new Account("a", false)));
+    }
+    
+    @Test
+    public void testPropertyFallsBackToFieldWithoutGetter() {
+        FieldAccessor accessor = FieldAccessors.forProperty(Account.class, "secret");
+        
+        assertEquals(42, accessor.get(new Account("a", true)));
+    }
+    
+    @Test
+    public void testPropertyFallsBackToFieldWhenGetterClassIsNotPublic() {
+        FieldAccessor accessor = FieldAccessors.forProperty(HiddenAccount.class, "name");
+        
+        assertEquals("stored", accessor.get(new HiddenAccount("stored")));
+    }
+    
+    @Test
+    public void testReadsInheritedField() {
+        FieldAccessor accessor = FieldAccessors.forField(SubAccount.class, "secret");
+        
+        assertEquals(42, accessor.get(new SubAccount()));
+    }
+    
+    @Test
+    public void testReflectionAccessorReadsPrivateField() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessors.reflectionAccessor(Account.class.getDeclaredField("secret"));
+        
+        assertEquals(42, accessor.get(new Account("a", true)));
+    }
+    
+    @Test
+    public void testUnknownFieldResolvesToNullAndIsCached() {
+        assertNull(FieldAccessors.forField(Account.class, "missing"));
+        assertSame(FieldAccessors.forField(Account.class, "name"), FieldAccessors.forField(Account.class, "name"));
+    }
+    
+    @Test
+    public void testColumnAccessorsFollowRowType() {
+        ColumnAccessors columns = new ColumnAccessors(List.of("name", "missing"));
+        
+        assertEquals("a", columns.get(new Account("a", true), 0));
+        assertEquals("b", columns.get(new HiddenAccount("b"), 0));
+        assertNull(columns.get(new Account("a", true), 1));
+    }
+    
+    @Test
+    public void testColumnAccessorsCanPreferGetters() {
+        ColumnAccessors columns = new ColumnAccessors(List.of("name"), true);
+        
+        assertEquals("getter:a", columns.get(new Account("a", true), 0));
+        assertEquals("b", columns.get(new HiddenAccount("b"), 0));
+    }
+    
+    @Test
+    public void testExportServiceRoutesCellsThroughOverriddenExtractFieldValue() {
+        ColumnAccessors plain = new AccountExportService().createColumnAccessors(List.of("name"));
+        ColumnAccessors overridden = new UpperCaseAccountExportService().createColumnAccessors(List.of("name"));
+        
+        assertEquals("a", plain.get(new Account("a", true), 0));
+        assertEquals("NAME=A", overridden.get(new Account("a", true), 0));
+    }
+    
+    public static class Account {
+        private final String name;
+        private final boolean active;
+        private final int secret = 42;
+        
+        public Account(String name, boolean active) {
+            this.name = name;
+            this.active = active;
+        }
+        
+        public String getName() {
+            return "getter:" + name;
+        }
+        
+        public boolean isActive() {
+            return active;
+        }
+    }
+    
+    public static class SubAccount extends Account {
+        public SubAccount() {
+            super("sub", true);
+        }
+    }
+    
+    private static class AccountExportService extends ExportService<Account> {
+        @Override
+        public String getSupportedExportType() {
+            return "ACCOUNT";
+        }
+        
+        @Override
+        public List<Account> queryData(Map<String, Object> paramFilter) {
+            return List.of();
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<Account> data) {
+            return Map.of();
+        }
+        
+        @Override
+        protected byte[] generateExcel(Iterator<Account> data, Map<String, String> headers) {
+            return new byte[0];
+        }
+        
+        @Override
+        protected byte[] createEmptyExcel() {
+            return new byte[0];
+        }
+    }
+    
+    private static class UpperCaseAccountExportService extends AccountExportService {
+        @Override
+        public Object extractFieldValue(Account item, String fieldName) {
+            return (fieldName + "=" + super.extractFieldValue(item, fieldName)).toUpperCase();
+        }
+    }
+    
+    private static class HiddenAccount {
+        private final String name;
+        
+        HiddenAccount(String name) {
+            this.name = name;
+        }
+        
+        public String getName() {
+            return "getter:" + name;
+        }
+    }
+}
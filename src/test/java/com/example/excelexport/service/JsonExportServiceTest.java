@@ -0,0 +1,86 @@
+package com.example.excelexport.service;
+
+import com.example.excelexport.model.JsonFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonExportServiceTest {
+    
+    private final TestJsonExportService exportService = new TestJsonExportService();
+    
+    @Test
+    public void testNdjsonWritesOneObjectPerLine() {
+        String json = write(List.of(row(1, "Alice"), row(2, "Bob")), JsonFormat.NDJSON);
+        
+        assertEquals("{\"id\":1,\"name\":\"Alice\"}\n{\"id\":2,\"name\":\"Bob\"}\n", json);
+    }
+    
+    @Test
+    public void testNdjsonWithoutRowsIsEmpty() {
+        assertEquals("", write(Collections.emptyList(), JsonFormat.NDJSON));
+    }
+    
+    @Test
+    public void testArrayWritesOneDocument() {
+        String json = write(List.of(row(1, "Alice"), row(2, "Bob")), JsonFormat.ARRAY);
+        
+        assertEquals("[{\"id\":1,\"name\":\"Alice\"},{\"id\":2,\"name\":\"Bob\"}]", json);
+        assertEquals("[]", write(Collections.emptyList(), JsonFormat.ARRAY));
+    }
+    
+    @Test
+    public void testNdjsonEscapesNewlinesInsideValues() {
+        String json = write(List.of(row(1, "line\nbreak")), JsonFormat.NDJSON);
+        
+        assertEquals(1, json.split("\n").length);
+        assertTrue(json.contains("line\\nbreak"));
+    }
+    
+    @Test
+    public void testLeavesOutputStreamOpen() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.writeJson(List.of(row(1, "Alice")).iterator(), outputStream, JsonFormat.NDJSON);
+        
+        outputStream.write('x');
+        assertTrue(outputStream.toString(StandardCharsets.UTF_8).endsWith("\nx"));
+    }
+    
+    private String write(List<Map<String, Object>> rows, JsonFormat format) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.writeJson(rows.iterator(), outputStream, format);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+    
+    private Map<String, Object> row(int id, String name) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("name", name);
+        return row;
+    }
+    
+    private static class TestJsonExportService extends JsonExportService<Map<String, Object>> {
+        
+        @Override
+        public String getSupportedExportType() {
+            return "TEST";
+        }
+        
+        @Override
+        public List<Map<String, Object>> queryData(Map<String, Object> paramFilter) {
+            return Collections.emptyList();
+        }
+        
+        @Override
+        public Map<String, String> generateHeaders(List<Map<String, Object>> data) {
+            return Collections.emptyMap();
+        }
+    }
+}
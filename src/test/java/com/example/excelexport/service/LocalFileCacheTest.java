@@ -0,0 +1,90 @@
+package com.example.excelexport.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalFileCacheTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    public void testServesCachedContent() throws IOException {
+        LocalFileCache cache = cache(100, 30);
+        cache.put("exports/a.xlsx", new byte[]{1, 2, 3});
+        
+        try (FileChannel channel = cache.open("exports/a.xlsx")) {
+            assertNotNull(channel);
+            ByteBuffer content = ByteBuffer.allocate(3);
+            channel.read(content);
+            assertArrayEquals(new byte[]{1, 2, 3}, content.array());
+        }
+        assertNull(cache.open("exports/missing.xlsx"));
+    }
+    
+    @Test
+    public void testEvictsLeastRecentlyUsedFirst() throws IOException {
+        LocalFileCache cache = cache(10, 30);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        close(cache.open("a"));
+        cache.put("c", new byte[4]);
+        
+        assertCached(cache, "a");
+        assertNull(cache.open("b"));
+        assertCached(cache, "c");
+    }
+    
+    @Test
+    public void testSkipsFilesLargerThanTheCache() {
+        LocalFileCache cache = cache(10, 30);
+        cache.put("big", new byte[11]);
+        
+        assertNull(cache.open("big"));
+    }
+    
+    @Test
+    public void testDropsExpiredEntries() throws InterruptedException {
+        LocalFileCache cache = cache(100, 0);
+        cache.put("a", new byte[4]);
+        Thread.sleep(5);
+        
+        assertNull(cache.open("a"));
+    }
+    
+    @Test
+    public void testInvalidateRemovesEntries() throws IOException {
+        LocalFileCache cache = cache(100, 30);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.invalidate(List.of("a"));
+        
+        assertNull(cache.open("a"));
+        assertCached(cache, "b");
+    }
+    
+    private LocalFileCache cache(long maxBytes, long ttlMinutes) {
+        return new LocalFileCache(true, directory.toString(), maxBytes, ttlMinutes,
+                new ExportMetrics(new SimpleMeterRegistry()));
+    }
+    
+    private void assertCached(LocalFileCache cache, String objectPath) throws IOException {
+        FileChannel channel = cache.open(objectPath);
+        assertNotNull(channel, objectPath + " should be cached");
+        channel.close();
+    }
+    
+    private void close(FileChannel channel) throws IOException {
+        assertNotNull(channel);
+        channel.close();
+    }
+}